@@ -0,0 +1,4 @@
+-- wrk script: POST validate-token với token lấy từ biến môi trường TOKEN
+wrk.method = "POST"
+wrk.headers["Content-Type"] = "application/json"
+wrk.body = '{"token":"' .. os.getenv("TOKEN") .. '","mode":"strict"}'
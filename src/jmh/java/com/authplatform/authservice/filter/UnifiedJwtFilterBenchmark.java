@@ -0,0 +1,98 @@
+package com.authplatform.authservice.filter;
+
+import com.authplatform.authservice.model.EndUser;
+import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.model.Project;
+import com.authplatform.authservice.model.ProjectRole;
+import com.authplatform.authservice.model.Role;
+import com.authplatform.authservice.repository.EndUserRepository;
+import com.authplatform.authservice.repository.OwnerRepository;
+import com.authplatform.authservice.security.JwtKeyManager;
+import com.authplatform.authservice.security.PrincipalCache;
+import com.authplatform.authservice.security.ProjectSnapshot;
+import com.authplatform.authservice.security.TokenGenerationRegistry;
+import com.authplatform.authservice.security.TokenVerificationCache;
+import com.authplatform.authservice.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Toàn bộ UnifiedJwtFilter với repository giả lập (Mockito): đường cache token trúng và đường parse đầy đủ.
+ * Repository chỉ bị gọi ở lần đầu, sau đó principal và thế hệ token nằm trong bộ nhớ.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnifiedJwtFilterBenchmark {
+
+    // "hit": token đã nằm trong TokenVerificationCache; "miss": cache kích thước 0, luôn parse chữ ký
+    @Param({"hit", "miss"})
+    public String tokenCache;
+
+    private UnifiedJwtFilter filter;
+    private String authorizationHeader;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() throws Exception {
+        JwtKeyManager keyManager = new JwtKeyManager(
+                "benchmark-secret-benchmark-secret-benchmark-secret-0123456789", List.of(), JwtKeyManager.Algorithm.HS256, "", "");
+        JwtService jwtService = new JwtService(keyManager);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "fastValidationMaxStaleness", Duration.ofMinutes(5));
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        Owner owner = Owner.builder().id(1L).email("owner@example.com").role(Role.ROLE_USER).emailVerified(true).build();
+        Project project = Project.builder().id(10L).name("bench").apiKey("api-key-bench").owner(owner).build();
+        ProjectRole role = ProjectRole.builder().id(100L).name("USER").level(100).project(project).build();
+        EndUser endUser = EndUser.builder().id(1000L).email("user@example.com").project(project)
+                .roles(new HashSet<>(Set.of(role))).emailVerified(true).build();
+
+        OwnerRepository ownerRepository = Mockito.mock(OwnerRepository.class);
+        EndUserRepository endUserRepository = Mockito.mock(EndUserRepository.class);
+        Mockito.when(endUserRepository.findByEmailAndProjectId(endUser.getEmail(), project.getId())).thenReturn(Optional.of(endUser));
+        Mockito.when(endUserRepository.findTokenGeneration(endUser.getId(), project.getId())).thenReturn(Optional.of(0));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        long tokenCacheSize = "hit".equals(tokenCache) ? 10_000 : 0;
+        filter = new UnifiedJwtFilter(
+                jwtService,
+                new PrincipalCache(ownerRepository, endUserRepository, 10_000, Duration.ofMinutes(1), meterRegistry),
+                new TokenVerificationCache(tokenCacheSize, Duration.ofMinutes(1), meterRegistry),
+                new TokenGenerationRegistry(ownerRepository, endUserRepository, Duration.ofSeconds(5))
+        );
+        authorizationHeader = "Bearer " + jwtService.generateEndUserLoginToken(endUser, ProjectSnapshot.of(project));
+
+        // Lượt đầu nạp principal và thế hệ token vào bộ nhớ
+        doFilter();
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/eu/me");
+        request.addHeader("Authorization", authorizationHeader);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
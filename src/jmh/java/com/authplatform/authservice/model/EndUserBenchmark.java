@@ -0,0 +1,40 @@
+package com.authplatform.authservice.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EndUser.getAuthorities được gọi mỗi khi dựng principal; chi phí tăng theo số role.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EndUserBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int roleCount;
+
+    private EndUser endUser;
+
+    @Setup
+    public void setUp() {
+        Project project = Project.builder().id(10L).name("bench").apiKey("api-key-bench").build();
+        Set<ProjectRole> roles = new HashSet<>();
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(ProjectRole.builder().id((long) i + 1).name("ROLE_NAME_" + i).level(i * 10).project(project).build());
+        }
+        endUser = EndUser.builder().id(1000L).email("user@example.com").project(project).roles(roles).build();
+    }
+
+    @Benchmark
+    public Collection<?> getAuthorities() {
+        return endUser.getAuthorities();
+    }
+}
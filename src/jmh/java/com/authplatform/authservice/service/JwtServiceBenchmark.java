@@ -0,0 +1,85 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.model.EndUser;
+import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.model.Project;
+import com.authplatform.authservice.model.ProjectRole;
+import com.authplatform.authservice.model.Role;
+import com.authplatform.authservice.security.JwtKeyManager;
+import com.authplatform.authservice.security.PrincipalSnapshot;
+import com.authplatform.authservice.security.ProjectSnapshot;
+import com.authplatform.authservice.security.VerifiedToken;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phát hành và xác minh token: chi phí ký/verify theo thuật toán, và đường validate (parse + kiểm tra principal).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    public JwtKeyManager.Algorithm algorithm;
+
+    @Param({"false", "true"})
+    public boolean embedClaims;
+
+    private JwtService jwtService;
+    private Owner owner;
+    private EndUser endUser;
+    private Project project;
+    private ProjectSnapshot projectSnapshot;
+    private PrincipalSnapshot endUserPrincipal;
+    private String endUserToken;
+
+    @Setup
+    public void setUp() {
+        JwtKeyManager keyManager = new JwtKeyManager(
+                "benchmark-secret-benchmark-secret-benchmark-secret-0123456789", List.of(), algorithm, "", "");
+        jwtService = new JwtService(keyManager);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "embedEndUserClaims", embedClaims);
+        ReflectionTestUtils.setField(jwtService, "fastValidationMaxStaleness", Duration.ofMinutes(5));
+        jwtService.init();
+
+        owner = Owner.builder().id(1L).email("owner@example.com").role(Role.ROLE_USER).emailVerified(true).build();
+        project = Project.builder().id(10L).name("bench").apiKey("api-key-bench").owner(owner).build();
+
+        Set<ProjectRole> roles = new HashSet<>();
+        roles.add(ProjectRole.builder().id(100L).name("USER").level(100).project(project).build());
+        roles.add(ProjectRole.builder().id(101L).name("ADMIN").level(500).project(project).build());
+        projectSnapshot = ProjectSnapshot.of(project);
+        endUser = EndUser.builder().id(1000L).email("user@example.com").project(project).roles(roles).emailVerified(true).build();
+
+        endUserPrincipal = PrincipalSnapshot.of(endUser);
+        endUserToken = jwtService.generateEndUserLoginToken(endUser, projectSnapshot);
+    }
+
+    @Benchmark
+    public String generateEndUserLoginToken() {
+        return jwtService.generateEndUserLoginToken(endUser, projectSnapshot);
+    }
+
+    @Benchmark
+    public String generateOwnerLoginToken() {
+        return jwtService.generateOwnerLoginToken(owner);
+    }
+
+    // Đường validate: parse + xác minh chữ ký một lần, rồi kiểm tra với principal đã cache
+    @Benchmark
+    public boolean validateEndUserToken() {
+        VerifiedToken token = jwtService.parse(endUserToken);
+        return jwtService.isEndUserLoginTokenValid(token, endUserPrincipal);
+    }
+}
@@ -0,0 +1,86 @@
+package com.authplatform.authservice.service;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gửi một lô thư tới máy chủ SMTP nhúng (GreenMail): mỗi thư một kết nối (JavaMailSenderImpl.send)
+ * so với dùng lại kết nối của PooledMailSender. Không giới hạn tốc độ để đo chi phí kết nối.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MailSenderBenchmark {
+
+    private static final int SMTP_PORT = 3925;
+
+    @Param({"20"})
+    public int batchSize;
+
+    private GreenMail greenMail;
+    private JavaMailSenderImpl mailSender;
+    private PooledMailSender pooledMailSender;
+
+    @Setup
+    public void setUp() {
+        greenMail = new GreenMail(new ServerSetup(SMTP_PORT, "localhost", ServerSetup.PROTOCOL_SMTP));
+        greenMail.start();
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(SMTP_PORT);
+        pooledMailSender = new PooledMailSender(mailSender, 1, 100, Duration.ofSeconds(30), 0, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooledMailSender.destroy();
+        greenMail.stop();
+    }
+
+    // GreenMail giữ thư trong bộ nhớ, xóa sau mỗi lần đo để heap không tăng dần
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @Benchmark
+    public void connectionPerMessage() throws MessagingException {
+        for (MimeMessage message : messages()) {
+            mailSender.send(message);
+        }
+    }
+
+    @Benchmark
+    public void pooledConnection() throws Exception {
+        pooledMailSender.send(messages());
+    }
+
+    private List<MimeMessage> messages() throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setFrom("noreply@example.com");
+            helper.setTo("user" + i + "@example.com");
+            helper.setSubject("Benchmark " + i);
+            helper.setText("<p>Mã xác thực của bạn là 123456</p>", true);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
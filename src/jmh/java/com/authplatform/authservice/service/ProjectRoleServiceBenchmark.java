@@ -0,0 +1,25 @@
+package com.authplatform.authservice.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chuẩn hóa tên role (bỏ dấu tiếng Việt, gạch dưới, IN HOA).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectRoleServiceBenchmark {
+
+    @Param({"admin", "  Quản trị   viên cấp cao  "})
+    public String name;
+
+    @Benchmark
+    public String normalizeRoleName() {
+        return ProjectRoleService.normalizeRoleName(name);
+    }
+}
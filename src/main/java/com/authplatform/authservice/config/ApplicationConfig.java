@@ -1,32 +1,49 @@
 package com.authplatform.authservice.config;
 
+import com.authplatform.authservice.security.BoundedPasswordEncoder;
+import com.authplatform.authservice.security.PasswordHashCalibrator;
 import com.authplatform.authservice.service.OwnerDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 @RequiredArgsConstructor
 public class ApplicationConfig {
 
     private final OwnerDetailsService ownerDetailsService;
 
+    // Hash có prefix {id}, chi phí hiệu chỉnh theo máy khi khởi động; chạy trên pool riêng có giới hạn, quá tải thì trả 503 ngay
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${security.password-hashing.target:0ms}") Duration target,
+            @Value("${security.password-hashing.pbkdf2-iterations:310000}") int pbkdf2Iterations,
+            @Value("${security.password-hashing.threads:0}") int threads,
+            @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        PasswordEncoder encoder = PasswordHashCalibrator.create(PasswordHashCalibrator.Algorithm.from(algorithm), target, pbkdf2Iterations);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(encoder, poolSize, queueCapacity, meterRegistry);
     }
 
     @Bean
-    public AuthenticationProvider ownerAuthenticationProvider() {
+    public AuthenticationProvider ownerAuthenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(ownerDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Băm lại mật khẩu có hash lỗi thời sau khi Owner đăng nhập thành công
+        authProvider.setUserDetailsPasswordService(ownerDetailsService);
         return authProvider;
     }
 
@@ -0,0 +1,47 @@
+package com.authplatform.authservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+// Khai báo executor riêng khiến Spring Boot bỏ applicationTaskExecutor, nên cần spring.task.execution.mode=force
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Executor riêng cho gửi email (EmailOutboxDispatcher gửi từng lô trên đây), để SMTP chậm không giữ thread xử lý request.
+     * Cố ý dùng platform thread kể cả ở chế độ virtual thread: Jakarta Mail gửi thư trong khối `synchronized`
+     * (SMTPTransport), trên Java 21 sẽ ghim carrier thread suốt thời gian chờ mạng.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor(
+            @Value("${app.email.executor.threads:2}") int threads,
+            @Value("${app.email.executor.queue-capacity:1000}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("email-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Job import End-User: mỗi job ghi liên tục vào DB nên chỉ chạy ít job song song, job thừa bị từ chối thay vì xếp hàng lâu
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(
+            @Value("${app.endusers.import.threads:1}") int threads,
+            @Value("${app.endusers.import.queue-capacity:10}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("enduser-import-");
+        return executor;
+    }
+}
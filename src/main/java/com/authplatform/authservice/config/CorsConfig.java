@@ -1,25 +1,42 @@
 package com.authplatform.authservice.config;
 
+import com.authplatform.authservice.security.ProjectCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.CorsRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class CorsConfig {
 
+    static final List<String> ALLOWED_METHODS = List.of("GET", "POST", "PUT", "DELETE", "OPTIONS");
+
+    /**
+     * Spring Security (`.cors(...)`) dùng bean tên `corsConfigurationSource` cho cả preflight lẫn request thật.
+     * `/api/p/{apiKey}/**` kiểm tra Origin theo allowedOrigins của Project, các API còn lại dùng `app.cors.allowed-origins`.
+     * Mặc định `*` chỉ cho request không kèm credentials; muốn gửi cookie/credentials phải liệt kê origin cụ thể.
+     */
     @Bean
-    public WebMvcConfigurer corsConfigurer() {
-        return new WebMvcConfigurer() {
-            @Override
-            public void addCorsMappings(CorsRegistry registry) {
-                registry.addMapping("/api/**")
-                        .allowedOriginPatterns("*")
-                        .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                        .allowedHeaders("*")
-                        .allowCredentials(true);
-            }
-        };
+    public CorsConfigurationSource corsConfigurationSource(
+            ProjectCache projectCache,
+            @Value("${app.cors.allowed-origins:*}") List<String> defaultAllowedOrigins,
+            @Value("${app.cors.max-age:1h}") Duration maxAge
+    ) {
+        CorsConfiguration defaults = new CorsConfiguration();
+        defaults.setAllowedOriginPatterns(defaultAllowedOrigins);
+        defaults.setAllowedMethods(ALLOWED_METHODS);
+        defaults.addAllowedHeader("*");
+        defaults.setAllowCredentials(!allowsAnyOrigin(defaultAllowedOrigins));
+        defaults.setMaxAge(maxAge);
+        return new ProjectCorsConfigurationSource(projectCache, defaults);
+    }
+
+    static boolean allowsAnyOrigin(List<String> origins) {
+        return origins != null && origins.stream().anyMatch(origin -> origin.trim().equals("*"));
     }
 
 }
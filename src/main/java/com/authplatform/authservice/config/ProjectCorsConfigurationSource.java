@@ -0,0 +1,133 @@
+package com.authplatform.authservice.config;
+
+import com.authplatform.authservice.security.ProjectCache;
+import com.authplatform.authservice.security.ProjectSnapshot;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * Chọn cấu hình CORS theo Project cho `/api/p/{apiKey}/**`.
+ * allowedOrigins của mỗi Project được biên dịch một lần thành {@link ProjectCorsConfiguration} (tập origin chính xác
+ * + regex cho mẫu có `*`) và gắn với {@link ProjectSnapshot} đang được cache: snapshot đổi khi Project được cập nhật,
+ * nên cấu hình cũ tự bị bỏ mà không cần invalidate riêng.
+ * Path không thuộc project dùng cấu hình mặc định. Project chưa khai báo allowedOrigins chỉ dùng cấu hình mặc định
+ * khi nó liệt kê origin cụ thể; mặc định `*` thì request cross-origin tới project đó bị chặn.
+ */
+public class ProjectCorsConfigurationSource implements CorsConfigurationSource {
+
+    private static final String PROJECT_PATH_PREFIX = "/api/p/";
+
+    private final ProjectCache projectCache;
+    private final CorsConfiguration defaults;
+    // null khi mặc định là `*`: không mở mọi origin cho project chưa khai báo allowedOrigins
+    private final CorsConfiguration projectDefaults;
+    // weakKeys so sánh theo identity: mỗi snapshot một cấu hình, snapshot bị thay thế thì entry được GC thu hồi
+    private final Cache<ProjectSnapshot, CorsConfiguration> configurations = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+
+    public ProjectCorsConfigurationSource(ProjectCache projectCache, CorsConfiguration defaults) {
+        this.projectCache = projectCache;
+        this.defaults = defaults;
+        this.projectDefaults = CorsConfig.allowsAnyOrigin(defaults.getAllowedOriginPatterns()) ? null : defaults;
+    }
+
+    @Override
+    public CorsConfiguration getCorsConfiguration(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith(PROJECT_PATH_PREFIX)) {
+            return defaults;
+        }
+
+        int end = path.indexOf('/', PROJECT_PATH_PREFIX.length());
+        String apiKey = path.substring(PROJECT_PATH_PREFIX.length(), end < 0 ? path.length() : end);
+        // apiKey không tồn tại: không trả cấu hình nào, trình duyệt sẽ chặn request cross-origin
+        ProjectSnapshot project = projectCache.findByApiKey(apiKey).orElse(null);
+        if (project == null) {
+            return null;
+        }
+        if (project.allowedOrigins().isEmpty()) {
+            return projectDefaults;
+        }
+        try {
+            return configurations.get(project, () -> new ProjectCorsConfiguration(project.allowedOrigins(), defaults));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to build CORS configuration for project " + project.id(), e.getCause());
+        }
+    }
+
+    /**
+     * Kiểm tra Origin bằng một lần tra HashSet cho origin chính xác; chỉ mẫu có `*` (ví dụ `https://*.example.com`)
+     * mới phải chạy regex, và regex đã được biên dịch sẵn.
+     */
+    static final class ProjectCorsConfiguration extends CorsConfiguration {
+
+        private final Set<String> exactOrigins = new HashSet<>();
+        private final List<Pattern> originPatterns = new ArrayList<>();
+
+        ProjectCorsConfiguration(List<String> allowedOrigins, CorsConfiguration defaults) {
+            super(defaults);
+            setAllowedOriginPatterns(null);
+            // Project cho phép mọi origin thì không được kèm credentials
+            if (CorsConfig.allowsAnyOrigin(allowedOrigins)) {
+                setAllowCredentials(false);
+            }
+            for (String allowedOrigin : allowedOrigins) {
+                String origin = normalize(allowedOrigin);
+                if (origin.contains("*")) {
+                    originPatterns.add(toPattern(origin));
+                } else {
+                    exactOrigins.add(origin);
+                }
+            }
+        }
+
+        @Override
+        public String checkOrigin(String requestOrigin) {
+            if (requestOrigin == null || requestOrigin.isEmpty()) {
+                return null;
+            }
+            String origin = normalize(requestOrigin);
+            if (exactOrigins.contains(origin)) {
+                return requestOrigin;
+            }
+            for (Pattern pattern : originPatterns) {
+                if (pattern.matcher(origin).matches()) {
+                    return requestOrigin;
+                }
+            }
+            return null;
+        }
+
+        // Origin không phân biệt hoa thường và không có dấu `/` ở cuối
+        private static String normalize(String origin) {
+            String trimmed = origin.trim().toLowerCase(Locale.ROOT);
+            return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+        }
+
+        private static Pattern toPattern(String origin) {
+            if (origin.equals("*")) {
+                return Pattern.compile(".*");
+            }
+            StringBuilder regex = new StringBuilder();
+            for (String part : origin.split("\\*", -1)) {
+                if (!regex.isEmpty()) {
+                    regex.append("[^/]*");
+                }
+                regex.append(Pattern.quote(part));
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -3,7 +3,7 @@ package com.authplatform.authservice.controller;
 import com.authplatform.authservice.dto.ApiResponse;
 import com.authplatform.authservice.dto.OwnerResponse;
 import com.authplatform.authservice.dto.UpdateOwnerRoleRequest;
-import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.security.PrincipalSnapshot;
 import com.authplatform.authservice.service.OwnerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -33,8 +33,8 @@ public class AdminController {
             @Valid @RequestBody UpdateOwnerRoleRequest request,
             Authentication authentication // Lấy thông tin admin đang đăng nhập
     ) {
-        Owner currentAdmin = (Owner) authentication.getPrincipal();
-        ownerService.updateOwnerRole(currentAdmin.getId(), id, request);
+        PrincipalSnapshot currentAdmin = (PrincipalSnapshot) authentication.getPrincipal();
+        ownerService.updateOwnerRole(currentAdmin.id(), id, request);
         return ResponseEntity.ok(new ApiResponse(true, "Owner role updated successfully."));
     }
 
@@ -2,8 +2,11 @@ package com.authplatform.authservice.controller;
 
 import com.authplatform.authservice.dto.*;
 import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.security.LoginRateLimiter;
 import com.authplatform.authservice.service.JwtService;
 import com.authplatform.authservice.service.OwnerService;
+import com.authplatform.authservice.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -22,6 +25,8 @@ public class AuthController {
     private final OwnerService ownerService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
     // --- API ĐĂNG KÝ ---
     @PostMapping("/register")
@@ -39,7 +44,9 @@ public class AuthController {
 
     // --- API ĐĂNG NHẬP ---
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest httpRequest) {
+        // Chặn dò mật khẩu trước khi tra DB và chạy BCrypt
+        loginRateLimiter.checkOwner(loginRequest.getEmail(), httpRequest.getRemoteAddr());
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         loginRequest.getEmail(),
@@ -49,19 +56,28 @@ public class AuthController {
 
         Owner ownerDetails = (Owner) authentication.getPrincipal();
         String token = jwtService.generateOwnerLoginToken(ownerDetails);
-        return ResponseEntity.ok(AuthResponse.builder().accessToken(token).build());
+        String refreshToken = refreshTokenService.issueForOwner(ownerDetails);
+        return ResponseEntity.ok(AuthResponse.builder().accessToken(token).refreshToken(refreshToken).build());
+    }
+
+    // --- API LÀM MỚI TOKEN (không cần mật khẩu) ---
+    @PostMapping("/token/refresh")
+    public ResponseEntity<AuthResponse> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(refreshTokenService.refreshOwner(request.getRefreshToken()));
     }
 
     // --- API QUÊN MẬT KHẨU ---
     @PostMapping("/forgot-password")
-    public ResponseEntity<ApiResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
+    public ResponseEntity<ApiResponse> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.checkOwner(request.getEmail(), httpRequest.getRemoteAddr());
         ownerService.forgotPassword(request.getEmail());
         return ResponseEntity.ok(new ApiResponse(true, "OTP has been sent to your email."));
     }
 
     // --- API ĐẶT LẠI MẬT KHẨU ---
     @PostMapping("/reset-password")
-    public ResponseEntity<ApiResponse> resetPassword(@Valid @RequestBody ResetPasswordRequest request) {
+    public ResponseEntity<ApiResponse> resetPassword(@Valid @RequestBody ResetPasswordRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.checkOwner(request.getEmail(), httpRequest.getRemoteAddr());
         ownerService.resetPassword(request);
         return ResponseEntity.ok(new ApiResponse(true, "Password has been reset successfully."));
     }
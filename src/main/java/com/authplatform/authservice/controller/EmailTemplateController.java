@@ -0,0 +1,43 @@
+package com.authplatform.authservice.controller;
+
+import com.authplatform.authservice.dto.EmailTemplateRequest;
+import com.authplatform.authservice.dto.EmailTemplateResponse;
+import com.authplatform.authservice.model.EmailTemplateType;
+import com.authplatform.authservice.service.EmailTemplateService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/projects/{projectId}/email-templates")
+@RequiredArgsConstructor
+public class EmailTemplateController {
+
+    private final EmailTemplateService emailTemplateService;
+
+    @GetMapping
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<List<EmailTemplateResponse>> getTemplates(@PathVariable Long projectId) {
+        return ResponseEntity.ok(emailTemplateService.getTemplates(projectId));
+    }
+
+    @PutMapping("/{type}")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<EmailTemplateResponse> updateTemplate(
+            @PathVariable Long projectId,
+            @PathVariable EmailTemplateType type,
+            @Valid @RequestBody EmailTemplateRequest request
+    ) {
+        return ResponseEntity.ok(emailTemplateService.updateTemplate(projectId, type, request));
+    }
+
+    @DeleteMapping("/{type}")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<EmailTemplateResponse> resetTemplate(@PathVariable Long projectId, @PathVariable EmailTemplateType type) {
+        return ResponseEntity.ok(emailTemplateService.resetTemplate(projectId, type));
+    }
+}
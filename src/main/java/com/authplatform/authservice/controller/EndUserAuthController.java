@@ -1,19 +1,26 @@
 package com.authplatform.authservice.controller;
 
 import com.authplatform.authservice.dto.*;
+import com.authplatform.authservice.security.LoginRateLimiter;
 import com.authplatform.authservice.service.EndUserService;
+import com.authplatform.authservice.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/p/{apiKey}/auth")
 @RequiredArgsConstructor
 public class EndUserAuthController {
 
     private final EndUserService endUserService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<ApiResponse> registerEndUser(
@@ -34,16 +41,24 @@ public class EndUserAuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> loginEndUser(@PathVariable String apiKey, @Valid @RequestBody EndUserLoginRequest request) {
+    public ResponseEntity<AuthResponse> loginEndUser(@PathVariable String apiKey, @Valid @RequestBody EndUserLoginRequest request, HttpServletRequest httpRequest) {
+        loginRateLimiter.checkEndUser(apiKey, request.getEmail(), httpRequest.getRemoteAddr());
         AuthResponse authResponse = endUserService.login(apiKey, request);
         return ResponseEntity.ok(authResponse);
     }
 
+    @PostMapping("/token/refresh")
+    public ResponseEntity<AuthResponse> refreshToken(@PathVariable String apiKey, @Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(refreshTokenService.refreshEndUser(apiKey, request.getRefreshToken()));
+    }
+
     @PostMapping("/forgot-password")
     public ResponseEntity<ApiResponse> forgotPassword(
             @PathVariable String apiKey,
-            @Valid @RequestBody ForgotPasswordRequest request
+            @Valid @RequestBody ForgotPasswordRequest request,
+            HttpServletRequest httpRequest
     ) {
+        loginRateLimiter.checkEndUser(apiKey, request.getEmail(), httpRequest.getRemoteAddr());
         endUserService.forgotPassword(apiKey, request);
         return ResponseEntity.ok(new ApiResponse(true, "OTP has been sent to your email."));
     }
@@ -51,18 +66,26 @@ public class EndUserAuthController {
     @PostMapping("/reset-password")
     public ResponseEntity<ApiResponse> resetPassword(
             @PathVariable String apiKey,
-            @Valid @RequestBody ResetPasswordRequest request
+            @Valid @RequestBody ResetPasswordRequest request,
+            HttpServletRequest httpRequest
     ) {
+        loginRateLimiter.checkEndUser(apiKey, request.getEmail(), httpRequest.getRemoteAddr());
         endUserService.resetPassword(apiKey, request);
         return ResponseEntity.ok(new ApiResponse(true, "Password has been reset successfully."));
     }
 
     @PostMapping("/validate-token")
     public ResponseEntity<TokenValidationResponse> validateToken(@PathVariable String apiKey, @Valid @RequestBody TokenValidationRequest request) {
-        TokenValidationResponse response = endUserService.validateToken(apiKey, request.getToken());
+        TokenValidationResponse response = endUserService.validateToken(apiKey, request.getToken(), request.getMode());
         if (!response.isValid()) {
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/validate-tokens")
+    public ResponseEntity<BatchTokenValidationResponse> validateTokens(@PathVariable String apiKey, @Valid @RequestBody BatchTokenValidationRequest request) {
+        List<TokenValidationResponse> results = endUserService.validateTokens(apiKey, request.getTokens(), request.getMode());
+        return ResponseEntity.ok(new BatchTokenValidationResponse(results));
+    }
 }
@@ -1,17 +1,35 @@
 package com.authplatform.authservice.controller;
 
 import com.authplatform.authservice.dto.ApiResponse;
+import com.authplatform.authservice.dto.BulkEndUserRequest;
+import com.authplatform.authservice.dto.BulkEndUserRolesRequest;
+import com.authplatform.authservice.dto.BulkOperationResponse;
+import com.authplatform.authservice.dto.EndUserFileFormat;
+import com.authplatform.authservice.dto.EndUserImportJobResponse;
 import com.authplatform.authservice.dto.EndUserResponse;
 import com.authplatform.authservice.dto.UpdateEndUserRequest;
 import com.authplatform.authservice.dto.UpdateEndUserRolesRequest;
+import com.authplatform.authservice.service.EndUserBulkService;
+import com.authplatform.authservice.service.EndUserExportService;
+import com.authplatform.authservice.service.EndUserImportService;
 import com.authplatform.authservice.service.EndUserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.security.Principal;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequiredArgsConstructor
@@ -19,6 +37,64 @@ import java.security.Principal;
 public class EndUserManagementController {
 
     private final EndUserService endUserService;
+    private final EndUserExportService endUserExportService;
+    private final EndUserImportService endUserImportService;
+    private final EndUserBulkService endUserBulkService;
+
+    // Import End-User hàng loạt từ file CSV/NDJSON (multipart, trường "file"); chạy nền, theo dõi tiến độ bằng jobId
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<EndUserImportJobResponse> importEndUsers(
+            @PathVariable Long projectId,
+            @RequestParam(defaultValue = "NDJSON") EndUserFileFormat format,
+            @RequestParam("file") MultipartFile file
+    ) throws IOException {
+        EndUserImportJobResponse job = endUserImportService.startImport(projectId, format, file);
+        return new ResponseEntity<>(job, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<EndUserImportJobResponse> getImportJob(
+            @PathVariable Long projectId,
+            @PathVariable String jobId
+    ) {
+        return ResponseEntity.ok(endUserImportService.getJob(projectId, jobId));
+    }
+
+    // Xuất toàn bộ End-User dạng stream (NDJSON/CSV), nén gzip nếu client gửi Accept-Encoding: gzip;
+    // tiếp tục export bị ngắt bằng afterId = id cuối cùng đã nhận
+    @GetMapping("/export")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<StreamingResponseBody> exportEndUsers(
+            @PathVariable Long projectId,
+            @RequestParam(defaultValue = "NDJSON") EndUserFileFormat format,
+            @RequestParam(required = false) Long afterId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // close() luôn giải phóng Deflater (bộ nhớ native) kể cả khi export lỗi, nhưng không đóng stream của servlet
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(nonClosing(out), 8192)) {
+                    endUserExportService.export(projectId, format, afterId, gzipOut);
+                }
+            } else {
+                endUserExportService.export(projectId, format, afterId, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("project-" + projectId + "-endusers." + format.getFileExtension())
+                        .build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
 
     // Sửa thông tin fullName
     @PutMapping("/{endUserId}")
@@ -98,4 +174,80 @@ public class EndUserManagementController {
         endUserService.removeRoleFromUser(projectId, endUserId, roleId);
         return ResponseEntity.ok(new ApiResponse(true, "Role removed from user successfully."));
     }
+
+    // --- THAO TÁC HÀNG LOẠT (chọn user theo userIds và/hoặc bộ lọc, trả về số bản ghi thay đổi) ---
+    @PostMapping("/bulk/roles")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<BulkOperationResponse> addRolesInBulk(
+            @PathVariable Long projectId,
+            @Valid @RequestBody BulkEndUserRolesRequest request
+    ) {
+        return ResponseEntity.ok(endUserBulkService.addRoles(projectId, request));
+    }
+
+    @PostMapping("/bulk/roles/remove")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<BulkOperationResponse> removeRolesInBulk(
+            @PathVariable Long projectId,
+            @Valid @RequestBody BulkEndUserRolesRequest request
+    ) {
+        return ResponseEntity.ok(endUserBulkService.removeRoles(projectId, request));
+    }
+
+    @PostMapping("/bulk/lock")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<BulkOperationResponse> lockUsersInBulk(
+            @PathVariable Long projectId,
+            @Valid @RequestBody BulkEndUserRequest request
+    ) {
+        return ResponseEntity.ok(endUserBulkService.lock(projectId, request));
+    }
+
+    @PostMapping("/bulk/unlock")
+    @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
+    public ResponseEntity<BulkOperationResponse> unlockUsersInBulk(
+            @PathVariable Long projectId,
+            @Valid @RequestBody BulkEndUserRequest request
+    ) {
+        return ResponseEntity.ok(endUserBulkService.unlock(projectId, request));
+    }
+
+    // Accept-Encoding có trọng số: "gzip;q=0" nghĩa là client từ chối gzip
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        return Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static OutputStream nonClosing(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
 }
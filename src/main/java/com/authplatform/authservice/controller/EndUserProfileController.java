@@ -4,12 +4,12 @@ import com.authplatform.authservice.dto.ApiResponse;
 import com.authplatform.authservice.dto.ChangePasswordRequest;
 import com.authplatform.authservice.dto.EndUserResponse;
 import com.authplatform.authservice.dto.UpdateMyProfileRequest;
+import com.authplatform.authservice.security.PrincipalSnapshot;
 import com.authplatform.authservice.service.EndUserService;
-import com.authplatform.authservice.service.JwtService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -18,34 +18,31 @@ import org.springframework.web.bind.annotation.*;
 public class EndUserProfileController {
 
     private final EndUserService endUserService;
-    private final JwtService jwtService;
-
-    private String getApiKeyFromToken(Authentication authentication) {
-        String token = (String) authentication.getCredentials();
-        return jwtService.extractClaim(token, claims -> claims.get("apiKey", String.class));
-    }
 
     @GetMapping
-    public ResponseEntity<EndUserResponse> getMyProfile(Authentication authentication) {
-        String apiKey = getApiKeyFromToken(authentication); // Lấy apiKey từ token
-        EndUserResponse profile = endUserService.getMyProfile(authentication.getName(), apiKey);
+    public ResponseEntity<EndUserResponse> getMyProfile(@AuthenticationPrincipal PrincipalSnapshot principal) {
+        EndUserResponse profile = endUserService.getMyProfile(principal);
         return ResponseEntity.ok(profile);
     }
 
     @PutMapping
     public ResponseEntity<EndUserResponse> updateMyProfile(
             @Valid @RequestBody UpdateMyProfileRequest request,
-            Authentication authentication
+            @AuthenticationPrincipal PrincipalSnapshot principal
     ) {
-        String apiKey = getApiKeyFromToken(authentication);
-        EndUserResponse updatedProfile = endUserService.updateMyProfile(authentication.getName(), apiKey, request);
+        EndUserResponse updatedProfile = endUserService.updateMyProfile(principal, request);
         return ResponseEntity.ok(updatedProfile);
     }
 
     @PutMapping("/password")
-    public ResponseEntity<ApiResponse> changeMyPassword(@Valid @RequestBody ChangePasswordRequest request, Authentication authentication) {
-        String apiKey = getApiKeyFromToken(authentication);
-        endUserService.changeMyPassword(authentication.getName(), apiKey, request);
+    public ResponseEntity<ApiResponse> changeMyPassword(@Valid @RequestBody ChangePasswordRequest request, @AuthenticationPrincipal PrincipalSnapshot principal) {
+        endUserService.changeMyPassword(principal, request);
         return ResponseEntity.ok(new ApiResponse(true, "Password changed successfully."));
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<ApiResponse> logoutEverywhere(@AuthenticationPrincipal PrincipalSnapshot principal) {
+        endUserService.logoutEverywhere(principal);
+        return ResponseEntity.ok(new ApiResponse(true, "Logged out from all devices."));
+    }
 }
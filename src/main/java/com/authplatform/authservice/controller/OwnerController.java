@@ -44,6 +44,13 @@ public class OwnerController {
         return ResponseEntity.ok(new ApiResponse(true, "Password changed successfully."));
     }
 
+    @PostMapping("/me/logout-all")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ApiResponse> logoutEverywhere(Principal principal) {
+        ownerService.logoutEverywhere(principal.getName());
+        return ResponseEntity.ok(new ApiResponse(true, "Logged out from all devices."));
+    }
+
     @GetMapping("/me/validate")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<OwnerResponse> validateToken(Principal principal) {
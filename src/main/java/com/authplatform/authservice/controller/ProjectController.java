@@ -1,7 +1,9 @@
 package com.authplatform.authservice.controller;
 
 import com.authplatform.authservice.dto.CreateProjectRequest;
-import com.authplatform.authservice.dto.EndUserResponse;
+import com.authplatform.authservice.dto.EndUserFilter;
+import com.authplatform.authservice.dto.EndUserPageResponse;
+import com.authplatform.authservice.dto.EndUserSort;
 import com.authplatform.authservice.dto.ProjectResponse;
 import com.authplatform.authservice.dto.UpdateProjectRequest;
 import com.authplatform.authservice.service.EndUserService;
@@ -57,10 +59,18 @@ public class ProjectController {
 
     @GetMapping("/{projectId}/endusers")
     @PreAuthorize("@permissionService.canManageProject(authentication, #projectId)")
-    public ResponseEntity<List<EndUserResponse>> getEndUsersByProject(
-            @PathVariable Long projectId
+    public ResponseEntity<EndUserPageResponse> getEndUsersByProject(
+            @PathVariable Long projectId,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) Boolean locked,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String emailPrefix,
+            @RequestParam(defaultValue = "ID_ASC") EndUserSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
     ) {
-        List<EndUserResponse> endUsers = endUserService.getUsersByProject(projectId);
+        EndUserFilter filter = new EndUserFilter(verified, locked, role, emailPrefix);
+        EndUserPageResponse endUsers = endUserService.getUsersByProject(projectId, filter, sort, cursor, size);
         return ResponseEntity.ok(endUsers);
     }
 }
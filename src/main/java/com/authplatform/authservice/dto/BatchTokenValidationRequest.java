@@ -0,0 +1,18 @@
+package com.authplatform.authservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTokenValidationRequest {
+    @NotEmpty(message = "Tokens cannot be empty")
+    @Size(max = 100, message = "At most 100 tokens can be validated per request")
+    private List<@NotBlank String> tokens;
+
+    // Mặc định STRICT để giữ nguyên hành vi cũ
+    private TokenValidationMode mode = TokenValidationMode.STRICT;
+}
@@ -0,0 +1,15 @@
+package com.authplatform.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchTokenValidationResponse {
+    // Kết quả theo đúng thứ tự token trong request
+    private List<TokenValidationResponse> results;
+}
@@ -0,0 +1,23 @@
+package com.authplatform.authservice.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.Set;
+
+// Chọn End-User cho thao tác hàng loạt: theo danh sách id và/hoặc bộ lọc (các điều kiện được AND với nhau)
+@Data
+public class BulkEndUserRequest {
+    @Size(max = 10000, message = "At most 10000 user IDs per request; use a filter for larger selections")
+    private Set<Long> userIds;
+
+    private Boolean verified;
+    private Boolean locked;
+    // Tên role, ví dụ "tất cả user có role X"
+    private String role;
+    private String emailPrefix;
+
+    public EndUserFilter toFilter() {
+        return new EndUserFilter(verified, locked, role, emailPrefix);
+    }
+}
@@ -0,0 +1,14 @@
+package com.authplatform.authservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.Set;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BulkEndUserRolesRequest extends BulkEndUserRequest {
+    @NotEmpty(message = "Role IDs cannot be empty")
+    private Set<Long> roleIds;
+}
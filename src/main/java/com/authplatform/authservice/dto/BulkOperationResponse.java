@@ -0,0 +1,11 @@
+package com.authplatform.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkOperationResponse {
+    // Số bản ghi thực sự thay đổi (role được gán/gỡ, user được khóa/mở khóa)
+    private long affected;
+}
@@ -0,0 +1,20 @@
+package com.authplatform.authservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class EmailTemplateRequest {
+    @NotBlank
+    @Size(max = 255)
+    private String subject;
+
+    @NotBlank
+    @Size(max = 100000)
+    private String htmlBody;
+
+    // Phần văn bản thuần cho client không hiển thị HTML, bỏ trống thì email chỉ có HTML
+    @Size(max = 100000)
+    private String textBody;
+}
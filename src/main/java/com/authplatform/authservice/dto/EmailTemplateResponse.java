@@ -0,0 +1,20 @@
+package com.authplatform.authservice.dto;
+
+import com.authplatform.authservice.model.EmailTemplateType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+public class EmailTemplateResponse {
+    private EmailTemplateType type;
+    private String subject;
+    private String htmlBody;
+    private String textBody;
+    private List<String> variables;
+    private boolean customized; // false = đang dùng nội dung mặc định
+    private Instant updatedAt;
+}
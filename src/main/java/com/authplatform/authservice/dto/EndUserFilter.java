@@ -0,0 +1,9 @@
+package com.authplatform.authservice.dto;
+
+// Bộ lọc danh sách End-User, trường null nghĩa là không lọc theo trường đó
+public record EndUserFilter(Boolean verified, Boolean locked, String role, String emailPrefix) {
+
+    public EndUserFilter withRole(String role) {
+        return new EndUserFilter(verified, locked, role, emailPrefix);
+    }
+}
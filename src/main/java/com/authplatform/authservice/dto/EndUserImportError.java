@@ -0,0 +1,13 @@
+package com.authplatform.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EndUserImportError {
+    // Số dòng trong file (tính cả dòng tiêu đề của CSV)
+    private long line;
+    private String email;
+    private String message;
+}
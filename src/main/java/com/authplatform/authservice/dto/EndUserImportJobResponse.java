@@ -0,0 +1,20 @@
+package com.authplatform.authservice.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class EndUserImportJobResponse {
+    private String jobId;
+    private Long projectId;
+    private String status;
+    private long processed;
+    private long imported;
+    private long failed;
+    // Chỉ giữ tối đa app.endusers.import.max-reported-errors lỗi đầu tiên
+    private List<EndUserImportError> errors;
+    private Instant startedAt;
+    private Instant finishedAt;
+}
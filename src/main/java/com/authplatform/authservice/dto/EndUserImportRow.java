@@ -0,0 +1,27 @@
+package com.authplatform.authservice.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+// Một dòng trong file import; cần đúng một trong hai trường password (mật khẩu gốc) hoặc passwordHash (hash BCrypt/Argon2 có sẵn)
+@Data
+public class EndUserImportRow {
+    @NotBlank(message = "Full name is required")
+    @Size(max = 100)
+    private String fullName;
+
+    @NotBlank(message = "Email is required")
+    @Email(message = "Email should be valid")
+    @Size(max = 100)
+    private String email;
+
+    @Size(min = 8, max = 100, message = "Password must be between 8 and 100 characters")
+    private String password;
+
+    private String passwordHash;
+
+    // Mặc định true: user chuyển sang từ hệ thống cũ đã xác thực email ở đó
+    private Boolean emailVerified;
+}
@@ -0,0 +1,15 @@
+package com.authplatform.authservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class EndUserPageResponse {
+    private List<EndUserResponse> items;
+    // Truyền lại qua tham số cursor để lấy trang tiếp theo; null khi đã hết dữ liệu
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.authplatform.authservice.dto;
+
+// Thứ tự sắp xếp danh sách End-User; email là duy nhất trong project nên cũng dùng được làm khóa phân trang
+public enum EndUserSort {
+    ID_ASC,
+    ID_DESC,
+    EMAIL_ASC,
+    EMAIL_DESC;
+
+    public boolean byEmail() {
+        return this == EMAIL_ASC || this == EMAIL_DESC;
+    }
+
+    public boolean descending() {
+        return this == ID_DESC || this == EMAIL_DESC;
+    }
+}
@@ -10,4 +10,7 @@ public class ProjectResponse {
     private String name;
     private String apiKey;
     private List<String> allowedOrigins;
+    private Long refreshTokenTtlSeconds;
+    private Integer loginAttemptLimit;
+    private Integer loginAttemptWindowSeconds;
 }
@@ -0,0 +1,19 @@
+package com.authplatform.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+/**
+ * FAST: trả lời chỉ từ claim trong token (trong cửa sổ `jwt.enduser.fast-validation.max-staleness`), không tra DB.
+ * STRICT: luôn load user từ DB, dùng cho các thao tác nhạy cảm.
+ */
+public enum TokenValidationMode {
+    FAST,
+    STRICT;
+
+    @JsonCreator
+    public static TokenValidationMode from(String value) {
+        return value == null ? STRICT : valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
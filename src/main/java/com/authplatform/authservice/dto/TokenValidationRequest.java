@@ -7,4 +7,7 @@ import lombok.Data;
 public class TokenValidationRequest {
     @NotBlank
     private String token;
+
+    // Mặc định STRICT để giữ nguyên hành vi cũ
+    private TokenValidationMode mode = TokenValidationMode.STRICT;
 }
@@ -1,6 +1,7 @@
 package com.authplatform.authservice.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
 
@@ -13,4 +14,15 @@ public class UpdateProjectRequest {
     private String name;
 
     private List<String> allowedOrigins;
+
+    // TTL refresh token của End-User (giây), bỏ trống để dùng giá trị mặc định
+    @Positive
+    private Long refreshTokenTtlSeconds;
+
+    // Số lần thử đăng nhập/đặt lại mật khẩu cho mỗi email trong cửa sổ (giây), bỏ trống để dùng mặc định
+    @Positive
+    private Integer loginAttemptLimit;
+
+    @Positive
+    private Integer loginAttemptWindowSeconds;
 }
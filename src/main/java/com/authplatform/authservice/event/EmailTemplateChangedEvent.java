@@ -0,0 +1,7 @@
+package com.authplatform.authservice.event;
+
+/**
+ * Phát ra khi template email của một Project được sửa hoặc khôi phục mặc định.
+ */
+public record EmailTemplateChangedEvent(Long projectId) {
+}
@@ -0,0 +1,30 @@
+package com.authplatform.authservice.event;
+
+/**
+ * Phát ra khi thông tin ảnh hưởng tới xác thực của một user thay đổi
+ * (mật khẩu, trạng thái khóa, xác thực email, role...). Các cache phía filter lắng nghe để xóa entry cũ.
+ * <p>
+ * {@code key} là khóa của một principal cụ thể, hoặc tiền tố kết thúc bằng ':' để xóa toàn bộ user của một project.
+ */
+public record PrincipalChangedEvent(String key) {
+
+    public static PrincipalChangedEvent owner(String email) {
+        return new PrincipalChangedEvent(ownerKey(email));
+    }
+
+    public static PrincipalChangedEvent endUser(Long projectId, String email) {
+        return new PrincipalChangedEvent(endUserKey(projectId, email));
+    }
+
+    public static PrincipalChangedEvent project(Long projectId) {
+        return new PrincipalChangedEvent("END_USER:" + projectId + ":");
+    }
+
+    public static String ownerKey(String email) {
+        return "OWNER:" + email;
+    }
+
+    public static String endUserKey(Long projectId, String email) {
+        return "END_USER:" + projectId + ":" + email;
+    }
+}
@@ -0,0 +1,8 @@
+package com.authplatform.authservice.event;
+
+/**
+ * Phát ra khi Project được tạo hoặc cập nhật, để xóa ảnh chụp cũ khỏi cache theo apiKey
+ * và cập nhật chỉ mục quyền sở hữu.
+ */
+public record ProjectChangedEvent(Long projectId, Long ownerId, String apiKey) {
+}
@@ -0,0 +1,8 @@
+package com.authplatform.authservice.event;
+
+/**
+ * Phát ra khi thế hệ token của một user tăng lên (khóa tài khoản, đổi mật khẩu, đăng xuất mọi nơi).
+ * {@code projectId == null} nghĩa là Owner.
+ */
+public record TokenGenerationChangedEvent(Long projectId, long userId, int generation) {
+}
@@ -0,0 +1,12 @@
+package com.authplatform.authservice.event;
+
+import com.authplatform.authservice.security.TokenGenerationChange;
+
+import java.util.List;
+
+/**
+ * Như {@link TokenGenerationChangedEvent} nhưng cho nhiều End-User cùng lúc (khóa hàng loạt),
+ * để không phải phát một event cho mỗi user.
+ */
+public record TokenGenerationsChangedEvent(List<TokenGenerationChange> changes) {
+}
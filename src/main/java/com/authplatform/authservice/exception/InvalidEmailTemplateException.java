@@ -0,0 +1,11 @@
+package com.authplatform.authservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidEmailTemplateException extends RuntimeException {
+    public InvalidEmailTemplateException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,14 @@
 package com.authplatform.authservice.filter;
 
-import com.authplatform.authservice.repository.EndUserRepository;
-import com.authplatform.authservice.repository.ProjectRepository;
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.authplatform.authservice.security.PrincipalCache;
+import com.authplatform.authservice.security.PrincipalSnapshot;
+import com.authplatform.authservice.security.TokenGenerationRegistry;
+import com.authplatform.authservice.security.TokenVerificationCache;
+import com.authplatform.authservice.security.TokenVerificationCache.CachedVerification;
+import com.authplatform.authservice.security.VerifiedToken;
 import com.authplatform.authservice.service.JwtService;
-import com.authplatform.authservice.service.OwnerDetailsService;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,7 +17,6 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,47 +28,78 @@ import java.io.IOException;
 public class UnifiedJwtFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final OwnerDetailsService ownerDetailsService;
-    private final EndUserRepository endUserRepository;
-    private final ProjectRepository projectRepository;
+    private final PrincipalCache principalCache;
+    private final TokenVerificationCache tokenVerificationCache;
+    private final TokenGenerationRegistry tokenGenerationRegistry;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ") || SecurityContextHolder.getContext().getAuthentication() != null) {
             filterChain.doFilter(request, response);
             return;
         }
 
         final String jwt = authHeader.substring(7);
-        final String userEmail = jwtService.extractUsername(jwt);
-        final String audience = jwtService.extractAudience(jwt);
+        final String cacheKey = tokenVerificationCache.keyOf(jwt);
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = null;
+        // Token đã được xác minh gần đây: dùng lại kết quả, bỏ qua parse chữ ký và truy vấn DB.
+        // Thế hệ token vẫn được kiểm tra (trong bộ nhớ) để thu hồi từ replica khác có hiệu lực ngay
+        CachedVerification cached = tokenVerificationCache.get(cacheKey);
+        if (cached != null) {
+            if (cached.isAuthenticated() && tokenGenerationRegistry.isCurrent(cached.principal(), cached.token())) {
+                authenticate(request, cached.principal(), cached.token());
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
 
-            // Xác định loại user dựa vào audience
+        final long epochAtLoad = tokenVerificationCache.currentEpoch();
+        final VerifiedToken token;
+        try {
+            // Parse + xác minh chữ ký một lần, các bước sau chỉ đọc từ token đã parse
+            token = jwtService.parse(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String userEmail = token.subject();
+        final String audience = token.audience();
+
+        if (userEmail != null) {
+            PrincipalSnapshot principal = null;
+            String principalKey = null;
+
+            // Xác định loại user dựa vào audience, principal được lấy qua near cache
             if ("OWNER_PLATFORM".equals(audience)) {
-                userDetails = ownerDetailsService.loadUserByUsername(userEmail);
-            } else if (audience != null && audience.startsWith("END_USER_PROJECT:")) {
-                Long projectId = Long.parseLong(audience.split(":")[1]);
-                userDetails = projectRepository.findById(projectId)
-                        .flatMap(project -> endUserRepository.findByEmailAndProject(userEmail, project))
-                        .orElse(null);
+                principalKey = PrincipalChangedEvent.ownerKey(userEmail);
+                principal = principalCache.getOwner(userEmail);
+            } else if (token.endUserProjectId() != null) {
+                Long projectId = token.endUserProjectId();
+                principalKey = PrincipalChangedEvent.endUserKey(projectId, userEmail);
+                principal = principalCache.getEndUser(projectId, userEmail);
             }
 
-            if (userDetails != null) {
-                boolean isTokenValid = "OWNER_PLATFORM".equals(audience)
-                        ? jwtService.isOwnerLoginTokenValid(jwt, userDetails)
-                        : jwtService.isEndUserLoginTokenValid(jwt, userDetails);
+            if (principalKey != null) {
+                boolean isTokenValid = principal != null && ("OWNER_PLATFORM".equals(audience)
+                        ? jwtService.isOwnerLoginTokenValid(token, principal)
+                        : jwtService.isEndUserLoginTokenValid(token, principal))
+                        && tokenGenerationRegistry.isCurrent(principal, token);
 
                 if (isTokenValid) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, jwt, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    authenticate(request, principal, token);
                 }
+                tokenVerificationCache.put(cacheKey,
+                        new CachedVerification(token, principalKey, isTokenValid ? principal : null),
+                        epochAtLoad);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(HttpServletRequest request, PrincipalSnapshot principal, VerifiedToken token) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
@@ -0,0 +1,8 @@
+package com.authplatform.authservice.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,41 @@
+package com.authplatform.authservice.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Các loại email hệ thống gửi, kèm danh sách biến được phép và nội dung mặc định khi Project chưa tùy chỉnh.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EmailTemplateType {
+
+    VERIFY_EMAIL(
+            List.of("projectName", "fullName", "link", "expiresInMinutes"),
+            "Kích hoạt tài khoản {{projectName}}",
+            "<h1>Chào mừng bạn đến với {{projectName}}!</h1>"
+                    + "<p>Vui lòng nhấp vào link sau để xác thực tài khoản của bạn (link có hiệu lực trong {{expiresInMinutes}} phút):</p>"
+                    + "<a href=\"{{link}}\">Kích hoạt tài khoản</a>",
+            "Chào mừng bạn đến với {{projectName}}!\n\n"
+                    + "Vui lòng mở link sau để xác thực tài khoản của bạn (link có hiệu lực trong {{expiresInMinutes}} phút):\n"
+                    + "{{link}}\n"
+    ),
+
+    PASSWORD_RESET_OTP(
+            List.of("projectName", "fullName", "otp", "expiresInMinutes"),
+            "Mã OTP đặt lại mật khẩu",
+            "<h1>Yêu cầu đặt lại mật khẩu cho {{projectName}}</h1>"
+                    + "<p>Mã OTP của bạn là: <b>{{otp}}</b></p>"
+                    + "<p>Mã này sẽ hết hạn sau {{expiresInMinutes}} phút. Vui lòng không chia sẻ mã này cho bất kỳ ai.</p>",
+            "Yêu cầu đặt lại mật khẩu cho {{projectName}}\n\n"
+                    + "Mã OTP của bạn là: {{otp}}\n"
+                    + "Mã này sẽ hết hạn sau {{expiresInMinutes}} phút. Vui lòng không chia sẻ mã này cho bất kỳ ai.\n"
+    );
+
+    private final List<String> variables;
+    private final String defaultSubject;
+    private final String defaultHtmlBody;
+    private final String defaultTextBody;
+}
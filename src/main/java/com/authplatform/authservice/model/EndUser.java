@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,6 +23,11 @@ import java.util.stream.Collectors;
 @Entity
 @Table(name = "end_users", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"email", "project_id"})
+}, indexes = {
+        @Index(name = "idx_end_users_token_generation_changed_at", columnList = "tokenGenerationChangedAt"),
+        // Phân trang keyset theo id / email trong một project
+        @Index(name = "idx_end_users_project_id_id", columnList = "project_id, id"),
+        @Index(name = "idx_end_users_project_id_email", columnList = "project_id, email")
 })
 public class EndUser implements UserDetails {
 
@@ -53,6 +59,13 @@ public class EndUser implements UserDetails {
 
     private Instant passwordLastChangedAt;
 
+    // Thế hệ token: tăng khi khóa tài khoản, đổi mật khẩu hoặc đăng xuất mọi nơi, token mang thế hệ cũ bị từ chối
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenGeneration;
+
+    private Instant tokenGenerationChangedAt;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return roles.stream()
@@ -0,0 +1,57 @@
+package com.authplatform.authservice.model;
+
+import com.authplatform.authservice.security.JwtKeyManager;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Khóa ký JWT được xoay vòng định kỳ, lưu trong DB để mọi replica dùng chung một key ring.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "jwt_signing_keys")
+public class JwtSigningKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String kid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private JwtKeyManager.Algorithm algorithm;
+
+    // PKCS#8 với ES256/EdDSA, secret với HS256; mã hóa AES-GCM (`v1:...`, xem SigningKeyCipher)
+    @Column(nullable = false, length = 4096)
+    private String privateKey;
+
+    // X.509 (base64), null với HS256
+    @Column(length = 4096)
+    private String publicKey;
+
+    // Thời điểm bắt đầu dùng để ký; trước đó khóa chỉ được công bố để các node/consumer kịp nạp
+    @Column(nullable = false)
+    private Instant activatesAt;
+
+    // Sau thời điểm này không còn token nào ký bằng khóa này còn hạn
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = Instant.now();
+    }
+}
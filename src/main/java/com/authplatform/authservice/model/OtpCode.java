@@ -0,0 +1,50 @@
+package com.authplatform.authservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Bảng lưu OTP dùng chung giữa các instance. Entity này chỉ để Hibernate tạo bảng;
+ * đọc/ghi đi qua {@link com.authplatform.authservice.security.JdbcOtpStore} để dùng upsert và UPDATE ... RETURNING.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "otp_codes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_otp_codes_scope_email", columnNames = {"scope", "email"})
+}, indexes = {
+        @Index(name = "idx_otp_codes_expires_at", columnList = "expiresAt")
+})
+public class OtpCode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // id Project, 0 cho Owner
+    @Column(nullable = false)
+    private long scope;
+
+    @Column(nullable = false)
+    private String email;
+
+    // HMAC-SHA256 của mã, không lưu mã gốc
+    @Column(nullable = false, length = 32)
+    private byte[] otpHash;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -9,6 +9,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -22,7 +23,9 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "owners")
+@Table(name = "owners", indexes = {
+        @Index(name = "idx_owners_token_generation_changed_at", columnList = "tokenGenerationChangedAt")
+})
 public class Owner implements UserDetails {
 
     @Id
@@ -64,6 +67,13 @@ public class Owner implements UserDetails {
 
     private Instant passwordLastChangedAt;
 
+    // Thế hệ token: tăng khi khóa tài khoản, đổi mật khẩu hoặc đăng xuất mọi nơi, token mang thế hệ cũ bị từ chối
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenGeneration;
+
+    private Instant tokenGenerationChangedAt;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = this.updatedAt = Instant.now();
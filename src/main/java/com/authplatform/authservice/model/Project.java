@@ -41,6 +41,14 @@ public class Project {
     @Column(name = "origin")
     private List<String> allowedOrigins = new ArrayList<>();
 
+    // TTL refresh token riêng của project (giây), null thì dùng jwt.refresh.ttl
+    private Long refreshTokenTtlSeconds;
+
+    // Giới hạn số lần đăng nhập/đặt lại mật khẩu cho mỗi email trong một cửa sổ, null thì dùng security.rate-limit.account.*
+    private Integer loginAttemptLimit;
+
+    private Integer loginAttemptWindowSeconds;
+
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
 
@@ -0,0 +1,16 @@
+package com.authplatform.authservice.repository;
+
+import com.authplatform.authservice.model.EmailTemplate;
+import com.authplatform.authservice.model.EmailTemplateType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmailTemplateRepository extends JpaRepository<EmailTemplate, Long> {
+    List<EmailTemplate> findByProjectId(Long projectId);
+
+    Optional<EmailTemplate> findByProjectIdAndType(Long projectId, EmailTemplateType type);
+}
@@ -0,0 +1,17 @@
+package com.authplatform.authservice.repository;
+
+import com.authplatform.authservice.dto.EndUserFilter;
+import com.authplatform.authservice.dto.EndUserResponse;
+import com.authplatform.authservice.dto.EndUserSort;
+
+import java.util.List;
+
+// Truy vấn danh sách End-User theo trang (keyset), không load entity và không kéo roles EAGER theo từng user
+public interface EndUserQueryRepository {
+
+    /**
+     * Trả về tối đa `limit` End-User đứng sau khóa `after` theo thứ tự `sort`
+     * (after là id với ID_*, là email với EMAIL_*; null = trang đầu).
+     */
+    List<EndUserResponse> findPage(Long projectId, EndUserFilter filter, EndUserSort sort, Object after, int limit);
+}
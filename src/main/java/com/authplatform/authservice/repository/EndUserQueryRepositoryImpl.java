@@ -0,0 +1,86 @@
+package com.authplatform.authservice.repository;
+
+import com.authplatform.authservice.dto.EndUserFilter;
+import com.authplatform.authservice.dto.EndUserResponse;
+import com.authplatform.authservice.dto.EndUserSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hai truy vấn cho mỗi trang: một truy vấn chỉ lấy các cột cần trả về (lọc + keyset + LIMIT),
+ * sau đó một JOIN lấy tên role của cả trang theo danh sách id.
+ */
+class EndUserQueryRepositoryImpl implements EndUserQueryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EndUserResponse> findPage(Long projectId, EndUserFilter filter, EndUserSort sort, Object after, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT u.id AS id, u.email AS email, u.fullName AS fullName, u.emailVerified AS emailVerified, u.locked AS locked "
+                        + "FROM EndUser u WHERE u.project.id = :projectId");
+        Map<String, Object> params = new HashMap<>();
+        params.put("projectId", projectId);
+
+        if (filter.verified() != null) {
+            jpql.append(" AND u.emailVerified = :verified");
+            params.put("verified", filter.verified());
+        }
+        if (filter.locked() != null) {
+            jpql.append(" AND u.locked = :locked");
+            params.put("locked", filter.locked());
+        }
+        if (filter.role() != null) {
+            jpql.append(" AND EXISTS (SELECT 1 FROM EndUser ru JOIN ru.roles r WHERE ru.id = u.id AND r.name = :role)");
+            params.put("role", filter.role());
+        }
+        if (filter.emailPrefix() != null) {
+            jpql.append(" AND u.email LIKE :emailPrefix ESCAPE '\\'");
+            params.put("emailPrefix", escapeLike(filter.emailPrefix()) + "%");
+        }
+
+        String key = sort.byEmail() ? "u.email" : "u.id";
+        if (after != null) {
+            jpql.append(" AND ").append(key).append(sort.descending() ? " < :after" : " > :after");
+            params.put("after", after);
+        }
+        jpql.append(" ORDER BY ").append(key).append(sort.descending() ? " DESC" : " ASC");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class).setMaxResults(limit);
+        params.forEach(query::setParameter);
+
+        Map<Long, EndUserResponse> page = new LinkedHashMap<>();
+        for (Tuple row : query.getResultList()) {
+            EndUserResponse response = new EndUserResponse();
+            response.setId(row.get("id", Long.class));
+            response.setEmail(row.get("email", String.class));
+            response.setFullName(row.get("fullName", String.class));
+            response.setEmailVerified(row.get("emailVerified", Boolean.class));
+            response.setLocked(row.get("locked", Boolean.class));
+            response.setRoles(new HashSet<>());
+            page.put(response.getId(), response);
+        }
+        if (page.isEmpty()) {
+            return List.of();
+        }
+
+        entityManager.createQuery("SELECT u.id, r.name FROM EndUser u JOIN u.roles r WHERE u.id IN :ids", Object[].class)
+                .setParameter("ids", page.keySet())
+                .getResultList()
+                .forEach(row -> page.get((Long) row[0]).getRoles().add((String) row[1]));
+        return List.copyOf(page.values());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -3,22 +3,44 @@ package com.authplatform.authservice.repository;
 import com.authplatform.authservice.model.EndUser;
 import com.authplatform.authservice.model.Project;
 import com.authplatform.authservice.model.ProjectRole;
+import com.authplatform.authservice.security.TokenGenerationChange;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EndUserRepository extends JpaRepository<EndUser, Long> {
+public interface EndUserRepository extends JpaRepository<EndUser, Long>, EndUserQueryRepository {
     List<EndUser> findByProject(Project project);
 
     // Kiểm tra email có tồn tại trong một project cụ thể không
     boolean existsByEmailAndProject(String email, Project project);
 
+    boolean existsByEmailAndProjectId(String email, Long projectId);
+
     // Tìm EndUser bằng email trong một project cụ thể
     Optional<EndUser> findByEmailAndProject(String email, Project project);
 
+    // Tìm EndUser theo email + projectId (không cần load Project), roles được join trong cùng một truy vấn
+    @EntityGraph(attributePaths = "roles")
+    Optional<EndUser> findByEmailAndProjectId(String email, Long projectId);
+
+    // Load nhiều EndUser của một project (kèm roles) trong một truy vấn, dùng cho validate token theo lô
+    @EntityGraph(attributePaths = "roles")
+    List<EndUser> findByProjectIdAndEmailIn(Long projectId, Collection<String> emails);
+
     // Đếm số lượng EndUser có chứa một ProjectRole cụ thể
     long countByRolesContaining(ProjectRole projectRole);
+
+    @Query("SELECT u.tokenGeneration FROM EndUser u WHERE u.id = :id AND u.project.id = :projectId")
+    Optional<Integer> findTokenGeneration(Long id, Long projectId);
+
+    @Query("SELECT new com.authplatform.authservice.security.TokenGenerationChange(u.id, u.project.id, u.tokenGeneration) "
+            + "FROM EndUser u WHERE u.tokenGenerationChangedAt > :since")
+    List<TokenGenerationChange> findTokenGenerationChangesSince(Instant since);
 }
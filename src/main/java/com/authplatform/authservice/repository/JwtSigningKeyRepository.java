@@ -0,0 +1,19 @@
+package com.authplatform.authservice.repository;
+
+import com.authplatform.authservice.model.JwtSigningKey;
+import com.authplatform.authservice.security.JwtKeyManager;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, Long> {
+    // Các khóa còn hiệu lực xác minh, khóa kích hoạt muộn nhất đứng đầu
+    List<JwtSigningKey> findByAlgorithmAndExpiresAtAfterOrderByActivatesAtDesc(JwtKeyManager.Algorithm algorithm, Instant now);
+
+    @Transactional
+    long deleteByExpiresAtBefore(Instant now);
+}
@@ -1,13 +1,24 @@
 package com.authplatform.authservice.repository;
 
 import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.security.TokenGenerationChange;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OwnerRepository extends JpaRepository<Owner, Long> {
     Optional<Owner> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    @Query("SELECT o.tokenGeneration FROM Owner o WHERE o.id = :id")
+    Optional<Integer> findTokenGeneration(Long id);
+
+    @Query("SELECT new com.authplatform.authservice.security.TokenGenerationChange(o.id, o.tokenGeneration) "
+            + "FROM Owner o WHERE o.tokenGenerationChangedAt > :since")
+    List<TokenGenerationChange> findTokenGenerationChangesSince(Instant since);
 }
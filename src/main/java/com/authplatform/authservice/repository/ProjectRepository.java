@@ -2,7 +2,9 @@ package com.authplatform.authservice.repository;
 
 import com.authplatform.authservice.model.Owner;
 import com.authplatform.authservice.model.Project;
+import com.authplatform.authservice.security.ProjectSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,15 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     List<Project> findByOwner(Owner owner);
 
     Optional<Project> findByApiKey(String apiKey);
+
+    @Query("SELECT p.id FROM Project p WHERE p.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(Long ownerId);
+
+    // Chỉ lấy các cột cần cho ProjectSnapshot, không load Owner (owner.id lấy thẳng từ khóa ngoại)
+    @Query("SELECT new com.authplatform.authservice.security.ProjectSnapshot(p.id, p.apiKey, p.name, p.owner.id, "
+            + "p.refreshTokenTtlSeconds, p.loginAttemptLimit, p.loginAttemptWindowSeconds) FROM Project p WHERE p.apiKey = :apiKey")
+    Optional<ProjectSnapshot> findSnapshotByApiKey(String apiKey);
+
+    @Query("SELECT o FROM Project p JOIN p.allowedOrigins o WHERE p.id = :projectId")
+    List<String> findAllowedOrigins(Long projectId);
 }
@@ -11,6 +11,8 @@ import java.util.Optional;
 @Repository
 public interface ProjectRoleRepository extends JpaRepository<ProjectRole, Long> {
     Optional<ProjectRole> findByNameAndProject(String name, Project project);
+    Optional<ProjectRole> findByNameAndProjectId(String name, Long projectId);
     List<ProjectRole> findByProject(Project project);
+    List<ProjectRole> findByProjectId(Long projectId);
     boolean existsByNameAndProject(String name, Project project);
 }
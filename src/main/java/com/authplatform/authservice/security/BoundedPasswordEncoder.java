@@ -0,0 +1,125 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.exception.PasswordHashingUnavailableException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chạy mọi phép băm/so khớp mật khẩu trên một pool riêng có giới hạn, thay vì trên thread Tomcat.
+ * Khi pool và hàng đợi đều đầy, request bị từ chối ngay (503) để đợt đăng nhập dồn dập không làm nghẽn các API rẻ khác.
+ * Thời gian chờ trong hàng đợi và thời gian băm được đo riêng.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer encodeQueueWait;
+    private final Timer encodeDuration;
+    private final Timer matchesQueueWait;
+    private final Timer matchesDuration;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadFactoryBuilder().setNameFormat("password-hash-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeQueueWait = queueWaitTimer("encode", meterRegistry);
+        this.encodeDuration = durationTimer("encode", meterRegistry);
+        this.matchesQueueWait = queueWaitTimer("matches", meterRegistry);
+        this.matchesDuration = durationTimer("matches", meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeQueueWait, encodeDuration, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesQueueWait, matchesDuration, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Chỉ đọc prefix/tham số của hash, không tốn CPU nên chạy trực tiếp
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // Encoder gốc cho job nền tự giới hạn số thread (import), để không tranh hàng đợi với đăng nhập
+    public PasswordEncoder unbounded() {
+        return delegate;
+    }
+
+    // Spring gọi khi đóng context (destroy method được suy ra từ tên)
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Timer queueWait, Timer duration, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    duration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Server is busy, please retry shortly.");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing was interrupted.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer queueWaitTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.hash.queue.wait")
+                .description("Time a password hashing task waits for a worker")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Timer durationTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.hash.duration")
+                .description("Time spent hashing or matching a password")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.authplatform.authservice.security;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OTP lưu trong bộ nhớ của node. Chỉ dùng khi chạy một instance (hoặc khi test),
+ * vì quên mật khẩu và đặt lại mật khẩu phải rơi vào cùng một node.
+ */
+@Component
+@ConditionalOnProperty(name = "security.otp.store", havingValue = "memory")
+public class InMemoryOtpStore implements OtpStore {
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(long scope, String email, byte[] otpHash, Instant expiresAt) {
+        entries.put(new Key(scope, email), new Entry(otpHash, expiresAt, 0));
+    }
+
+    @Override
+    public byte[] recordAttempt(long scope, String email, int maxAttempts, Instant now) {
+        Entry[] attempted = new Entry[1];
+        entries.computeIfPresent(new Key(scope, email), (key, entry) -> {
+            if (entry.expiresAt().isBefore(now) || entry.attempts() >= maxAttempts) {
+                return entry;
+            }
+            attempted[0] = new Entry(entry.otpHash(), entry.expiresAt(), entry.attempts() + 1);
+            return attempted[0];
+        });
+        return attempted[0] != null ? attempted[0].otpHash() : null;
+    }
+
+    @Override
+    public boolean remove(long scope, String email, byte[] otpHash) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(new Key(scope, email), (key, entry) -> {
+            removed[0] = MessageDigest.isEqual(entry.otpHash(), otpHash);
+            return removed[0] ? null : entry;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        return before - entries.size();
+    }
+
+    private record Key(long scope, String email) {
+    }
+
+    private record Entry(byte[] otpHash, Instant expiresAt, int attempts) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.authplatform.authservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * OTP lưu trong bảng `otp_codes` (xem {@link com.authplatform.authservice.model.OtpCode}) nên mọi instance đều thấy.
+ * Mỗi thao tác là một câu SQL nguyên tử (upsert, UPDATE ... RETURNING, DELETE có điều kiện),
+ * nên hai request song song không thể cùng vượt giới hạn số lần thử hay cùng dùng một mã.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.otp.store", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcOtpStore implements OtpStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void save(long scope, String email, byte[] otpHash, Instant expiresAt) {
+        jdbcTemplate.update("""
+                INSERT INTO otp_codes (scope, email, otp_hash, attempts, expires_at, created_at)
+                VALUES (?, ?, ?, 0, ?, ?)
+                ON CONFLICT (scope, email) DO UPDATE
+                SET otp_hash = EXCLUDED.otp_hash, attempts = 0, expires_at = EXCLUDED.expires_at, created_at = EXCLUDED.created_at
+                """, scope, email, otpHash, Timestamp.from(expiresAt), Timestamp.from(Instant.now()));
+    }
+
+    @Override
+    public byte[] recordAttempt(long scope, String email, int maxAttempts, Instant now) {
+        List<byte[]> hashes = jdbcTemplate.query("""
+                UPDATE otp_codes SET attempts = attempts + 1
+                WHERE scope = ? AND email = ? AND expires_at > ? AND attempts < ?
+                RETURNING otp_hash
+                """, (rs, rowNum) -> rs.getBytes(1), scope, email, Timestamp.from(now), maxAttempts);
+        return hashes.isEmpty() ? null : hashes.get(0);
+    }
+
+    @Override
+    public boolean remove(long scope, String email, byte[] otpHash) {
+        return jdbcTemplate.update("DELETE FROM otp_codes WHERE scope = ? AND email = ? AND otp_hash = ?", scope, email, otpHash) == 1;
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        return jdbcTemplate.update("DELETE FROM otp_codes WHERE expires_at < ?", Timestamp.from(now));
+    }
+}
@@ -0,0 +1,226 @@
+package com.authplatform.authservice.security;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Key ring cho JWT: một khóa đang active để ký và N khóa dùng để xác minh, tra theo header `kid`
+ * qua một map dựng sẵn.
+ * <ul>
+ *     <li>HS256 (mặc định, chế độ tương thích): ký bằng `jwt.secret`. `jwt.previous-secrets` vẫn được chấp nhận
+ *     khi xác minh, nên có thể đổi secret mà không buộc toàn bộ user đăng nhập lại.</li>
+ *     <li>ES256 / EdDSA: ký bằng private key, public key được công bố qua JWKS để các resource server
+ *     tự xác minh token mà không cần gọi validate-token.</li>
+ * </ul>
+ * Khi bật `jwt.rotation.enabled`, {@link JwtKeyRotationService} nạp thêm các khóa xoay vòng qua {@link #install}.
+ * Token không có `kid` (phát hành trước khi có key ring) được xác minh bằng `jwt.secret`.
+ */
+@Slf4j
+@Component
+public class JwtKeyManager extends LocatorAdapter<Key> {
+
+    public enum Algorithm {
+        HS256,
+        ES256,
+        EdDSA
+    }
+
+    /**
+     * Một khóa trong ring. {@code publicJwk == null} với khóa HMAC (không công bố qua JWKS).
+     */
+    public record RingKey(String kid, Algorithm algorithm, Key signingKey, Key verificationKey, PublicJwk<PublicKey> publicJwk) {
+    }
+
+    private record KeyRing(RingKey active, Map<String, Key> verificationKeys, String jwksJson) {
+    }
+
+    private final SecretKey legacyHmacKey;
+    private final RingKey configuredKey;
+    private final List<RingKey> staticKeys;
+    private volatile KeyRing ring;
+
+    public JwtKeyManager(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.previous-secrets:}") List<String> previousSecrets,
+            @Value("${jwt.signing.algorithm:HS256}") Algorithm algorithm,
+            @Value("${jwt.signing.private-key:}") String privateKeyPem,
+            @Value("${jwt.signing.public-key:}") String publicKeyPem
+    ) {
+        RingKey hmacKey = hmacKey(secret.getBytes(StandardCharsets.UTF_8));
+        this.legacyHmacKey = (SecretKey) hmacKey.signingKey();
+        this.configuredKey = algorithm == Algorithm.HS256
+                ? hmacKey
+                : asymmetricKey(algorithm, loadOrGenerateKeyPair(algorithm, privateKeyPem, publicKeyPem));
+
+        List<RingKey> keys = new ArrayList<>();
+        keys.add(configuredKey);
+        if (configuredKey != hmacKey) {
+            keys.add(hmacKey);
+        }
+        previousSecrets.stream()
+                .filter(previous -> !previous.isBlank())
+                .map(previous -> hmacKey(previous.getBytes(StandardCharsets.UTF_8)))
+                .forEach(keys::add);
+        this.staticKeys = List.copyOf(keys);
+
+        install(null, List.of());
+        log.info("JWT signing mode {} with kid {}", algorithm, configuredKey.kid());
+    }
+
+    /**
+     * Thay key ring: {@code active} là khóa ký mới (null = dùng khóa cấu hình), {@code rotatedKeys} là các khóa
+     * xoay vòng còn hiệu lực xác minh. Ring mới được dựng xong rồi mới gán, request đang chạy không thấy trạng thái dở dang.
+     */
+    public void install(RingKey active, List<RingKey> rotatedKeys) {
+        Map<String, Key> verificationKeys = new HashMap<>();
+        List<PublicJwk<PublicKey>> publicJwks = new ArrayList<>();
+        for (RingKey key : concat(rotatedKeys, staticKeys)) {
+            if (verificationKeys.putIfAbsent(key.kid(), key.verificationKey()) == null && key.publicJwk() != null) {
+                publicJwks.add(key.publicJwk());
+            }
+        }
+        this.ring = new KeyRing(active != null ? active : configuredKey, Map.copyOf(verificationKeys), toJwksJson(publicJwks));
+    }
+
+    // Gắn header kid và ký token bằng khóa đang active
+    public JwtBuilder sign(JwtBuilder builder) {
+        RingKey active = ring.active();
+        builder.header().keyId(active.kid()).and();
+        if (active.algorithm() == Algorithm.HS256) {
+            return builder.signWith(active.signingKey());
+        }
+        return builder.signWith((PrivateKey) active.signingKey(), signatureAlgorithm(active.algorithm()));
+    }
+
+    public String activeKid() {
+        return ring.active().kid();
+    }
+
+    // JSON của JWK Set (chỉ chứa public key), được dựng sẵn mỗi khi ring thay đổi
+    public String jwksJson() {
+        return ring.jwksJson();
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            return legacyHmacKey;
+        }
+        Key key = ring.verificationKeys().get(kid);
+        if (key == null) {
+            throw new JwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
+    // --- TẠO KHÓA ---
+
+    // kid của khóa HMAC là một phần SHA-256 của secret, không làm lộ secret
+    public static RingKey hmacKey(byte[] secret) {
+        SecretKey key = Keys.hmacShaKeyFor(secret);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret);
+            String kid = "hs-" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+            return new RingKey(kid, Algorithm.HS256, key, key, null);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public static RingKey asymmetricKey(Algorithm algorithm, KeyPair keyPair) {
+        PublicJwk<PublicKey> jwk = toPublicJwk(keyPair.getPublic(), algorithm);
+        return new RingKey(jwk.getId(), algorithm, keyPair.getPrivate(), keyPair.getPublic(), jwk);
+    }
+
+    public static KeyPair generateKeyPair(Algorithm algorithm) {
+        // EdDSA dùng Ed25519 (đường cong được hỗ trợ rộng rãi nhất phía client)
+        return algorithm == Algorithm.ES256
+                ? Jwts.SIG.ES256.keyPair().build()
+                : Jwks.CRV.Ed25519.keyPair().build();
+    }
+
+    public static KeyPair decodeKeyPair(Algorithm algorithm, String privateKeyPem, String publicKeyPem) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm == Algorithm.ES256 ? "EC" : "EdDSA");
+            PrivateKey privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(privateKeyPem)));
+            PublicKey publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(publicKeyPem)));
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid key material for " + algorithm, e);
+        }
+    }
+
+    private static KeyPair loadOrGenerateKeyPair(Algorithm algorithm, String privateKeyPem, String publicKeyPem) {
+        if (privateKeyPem.isBlank() || publicKeyPem.isBlank()) {
+            log.warn("jwt.signing.private-key/public-key not configured, generating an ephemeral {} key pair. "
+                    + "Tokens will not survive a restart and replicas will not share keys.", algorithm);
+            return generateKeyPair(algorithm);
+        }
+        return decodeKeyPair(algorithm, privateKeyPem, publicKeyPem);
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(Algorithm algorithm) {
+        return algorithm == Algorithm.ES256 ? Jwts.SIG.ES256 : Jwts.SIG.EdDSA;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PublicJwk<PublicKey> toPublicJwk(PublicKey publicKey, Algorithm algorithm) {
+        return (PublicJwk<PublicKey>) Jwks.builder()
+                .key(publicKey)
+                .algorithm(algorithm.name())
+                .publicKeyUse("sig")
+                .idFromThumbprint()
+                .build();
+    }
+
+    private static String toJwksJson(List<PublicJwk<PublicKey>> jwks) {
+        StringBuilder json = new StringBuilder("{\"keys\":[");
+        for (int i = 0; i < jwks.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(Jwks.json(jwks.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static List<RingKey> concat(List<RingKey> first, List<RingKey> second) {
+        List<RingKey> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
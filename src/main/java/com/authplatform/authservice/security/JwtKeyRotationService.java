@@ -0,0 +1,139 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.model.JwtSigningKey;
+import com.authplatform.authservice.repository.JwtSigningKeyRepository;
+import com.authplatform.authservice.security.JwtKeyManager.Algorithm;
+import com.authplatform.authservice.security.JwtKeyManager.RingKey;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Xoay vòng khóa ký JWT theo lịch. Khóa mới được tạo trước `jwt.rotation.publish-ahead` so với lúc bắt đầu ký,
+ * nên mọi replica (nạp lại mỗi `jwt.rotation.check-interval`) và các consumer JWKS đã biết khóa trước khi gặp token mới.
+ * Khóa cũ vẫn dùng để xác minh cho tới khi token cuối cùng ký bằng nó hết hạn, nên không có đợt đăng nhập lại hàng loạt.
+ * Secret HS256 và private key được mã hóa bằng {@link SigningKeyCipher} trước khi lưu, đọc DB/backup không đủ để ký token.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "jwt.rotation.enabled", havingValue = "true")
+public class JwtKeyRotationService {
+
+    private final JwtSigningKeyRepository signingKeyRepository;
+    private final JwtKeyManager keyManager;
+    private final Algorithm algorithm;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration tokenLifetime;
+    private final SigningKeyCipher cipher;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public JwtKeyRotationService(
+            JwtSigningKeyRepository signingKeyRepository,
+            JwtKeyManager keyManager,
+            @Value("${jwt.signing.algorithm:HS256}") Algorithm algorithm,
+            @Value("${jwt.rotation.interval:7d}") Duration rotationInterval,
+            @Value("${jwt.rotation.publish-ahead:10m}") Duration publishAhead,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.rotation.key-encryption-key:${jwt.secret}}") String keyEncryptionKey
+    ) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.keyManager = keyManager;
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.publishAhead = publishAhead;
+        this.tokenLifetime = Duration.ofMillis(jwtExpiration);
+        this.cipher = new SigningKeyCipher(keyEncryptionKey);
+    }
+
+    @PostConstruct
+    void init() {
+        rotateIfDue();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.rotation.check-interval:1m}", initialDelayString = "${jwt.rotation.check-interval:1m}")
+    public void rotateIfDue() {
+        Instant now = Instant.now();
+        List<JwtSigningKey> keys = new ArrayList<>(
+                signingKeyRepository.findByAlgorithmAndExpiresAtAfterOrderByActivatesAtDesc(algorithm, now));
+
+        Instant nextActivation = keys.isEmpty() ? now.plus(publishAhead) : keys.get(0).getActivatesAt().plus(rotationInterval);
+        if (nextActivation.isBefore(now.plus(publishAhead).plusSeconds(1))) {
+            JwtSigningKey created = signingKeyRepository.save(newKey(max(nextActivation, now.plus(publishAhead))));
+            keys.add(0, created);
+            log.info("Created JWT signing key {} activating at {}", created.getKid(), created.getActivatesAt());
+        }
+        signingKeyRepository.deleteByExpiresAtBefore(now);
+
+        RingKey active = null;
+        List<RingKey> ringKeys = new ArrayList<>(keys.size());
+        for (JwtSigningKey key : keys) {
+            encryptIfPlaintext(key);
+            RingKey ringKey = toRingKey(key);
+            ringKeys.add(ringKey);
+            if (active == null && !key.getActivatesAt().isAfter(now)) {
+                active = ringKey;
+            }
+        }
+        keyManager.install(active, ringKeys);
+    }
+
+    private JwtSigningKey newKey(Instant activatesAt) {
+        Base64.Encoder base64 = Base64.getEncoder();
+        byte[] privateKey;
+        String publicKey = null;
+        String kid;
+        if (algorithm == Algorithm.HS256) {
+            privateKey = new byte[64];
+            secureRandom.nextBytes(privateKey);
+            kid = JwtKeyManager.hmacKey(privateKey).kid();
+        } else {
+            KeyPair keyPair = JwtKeyManager.generateKeyPair(algorithm);
+            privateKey = keyPair.getPrivate().getEncoded();
+            publicKey = base64.encodeToString(keyPair.getPublic().getEncoded());
+            kid = JwtKeyManager.asymmetricKey(algorithm, keyPair).kid();
+        }
+        return JwtSigningKey.builder()
+                .kid(kid)
+                .algorithm(algorithm)
+                .privateKey(cipher.encrypt(kid, privateKey))
+                .publicKey(publicKey)
+                .activatesAt(activatesAt)
+                // Khóa ký tới khi khóa kế tiếp kích hoạt, token cuối cùng sống thêm tokenLifetime
+                .expiresAt(activatesAt.plus(rotationInterval).plus(publishAhead).plus(tokenLifetime))
+                .build();
+    }
+
+    // Khóa được ghi trước khi có mã hóa: mã hóa lại tại chỗ
+    private void encryptIfPlaintext(JwtSigningKey key) {
+        if (!SigningKeyCipher.isEncrypted(key.getPrivateKey())) {
+            key.setPrivateKey(cipher.encrypt(key.getKid(), Base64.getDecoder().decode(key.getPrivateKey())));
+            signingKeyRepository.save(key);
+            log.info("Encrypted stored JWT signing key {}", key.getKid());
+        }
+    }
+
+    private RingKey toRingKey(JwtSigningKey key) {
+        byte[] privateKey = cipher.decrypt(key.getKid(), key.getPrivateKey());
+        if (key.getAlgorithm() == Algorithm.HS256) {
+            return JwtKeyManager.hmacKey(privateKey);
+        }
+        return JwtKeyManager.asymmetricKey(key.getAlgorithm(), JwtKeyManager.decodeKeyPair(key.getAlgorithm(),
+                Base64.getEncoder().encodeToString(privateKey), key.getPublicKey()));
+    }
+
+    private static Instant max(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,125 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.exception.TooManyRequestsException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Chống dò mật khẩu cho đăng nhập, quên/đặt lại mật khẩu: một bucket theo IP và một bucket theo (project, email).
+ * Được gọi ở controller trước mọi truy vấn DB hay phép băm. Bucket nằm trong cache Guava (phân đoạn theo concurrencyLevel),
+ * bị xóa khi không dùng trong một cửa sổ và giới hạn tổng số khóa, nên bộ nhớ luôn bị chặn. Cửa sổ riêng của project
+ * bị kẹp về {@code security.rate-limit.account.max-window}, cũng là thời gian giữ bucket theo tài khoản.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final String PLATFORM_SCOPE = "platform";
+
+    public record Limit(int attempts, Duration window) {
+        long intervalNanos() {
+            return window.toNanos() / attempts;
+        }
+
+        long burstToleranceNanos() {
+            return window.toNanos() - intervalNanos();
+        }
+    }
+
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+    // Giới hạn riêng của project đọc từ ProjectCache, không tra DB ở mỗi lần thử
+    private final ProjectCache projectCache;
+    private final Limit ipLimit;
+    private final Limit accountLimit;
+    private final Duration maxAccountWindow;
+    private final Counter ipRejected;
+    private final Counter accountRejected;
+
+    public LoginRateLimiter(
+            ProjectCache projectCache,
+            @Value("${security.rate-limit.ip.attempts:30}") int ipAttempts,
+            @Value("${security.rate-limit.ip.window:1m}") Duration ipWindow,
+            @Value("${security.rate-limit.account.attempts:5}") int accountAttempts,
+            @Value("${security.rate-limit.account.window:1m}") Duration accountWindow,
+            @Value("${security.rate-limit.account.max-window:24h}") Duration maxAccountWindow,
+            @Value("${security.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys,
+            MeterRegistry meterRegistry
+    ) {
+        this.ipLimit = new Limit(ipAttempts, ipWindow);
+        this.accountLimit = new Limit(accountAttempts, accountWindow);
+        this.maxAccountWindow = accountWindow.compareTo(maxAccountWindow) > 0 ? accountWindow : maxAccountWindow;
+        this.ipBuckets = newBucketCache(maxTrackedKeys, ipWindow);
+        // Bucket rảnh quá một cửa sổ đã đầy lại, nên giữ theo cửa sổ lớn nhất có thể là đủ và không mất trạng thái
+        this.accountBuckets = newBucketCache(maxTrackedKeys, this.maxAccountWindow);
+        this.projectCache = projectCache;
+        this.ipRejected = Counter.builder("auth.rate_limit.rejected").tag("scope", "ip").register(meterRegistry);
+        this.accountRejected = Counter.builder("auth.rate_limit.rejected").tag("scope", "account").register(meterRegistry);
+    }
+
+    public void checkEndUser(String apiKey, String email, String clientIp) {
+        checkIp(clientIp);
+        checkAccount(apiKey + ":" + normalize(email), limitFor(apiKey));
+    }
+
+    public void checkOwner(String email, String clientIp) {
+        checkIp(clientIp);
+        checkAccount(PLATFORM_SCOPE + ":" + normalize(email), accountLimit);
+    }
+
+    private void checkIp(String clientIp) {
+        if (!tryAcquire(ipBuckets, clientIp, ipLimit)) {
+            ipRejected.increment();
+            throw new TooManyRequestsException("Too many attempts from this address. Please try again later.");
+        }
+    }
+
+    private void checkAccount(String key, Limit limit) {
+        if (!tryAcquire(accountBuckets, key, limit)) {
+            accountRejected.increment();
+            throw new TooManyRequestsException("Too many attempts for this account. Please try again later.");
+        }
+    }
+
+    private Limit limitFor(String apiKey) {
+        // IP đã qua giới hạn nên số apiKey lạ bị tra DB cũng bị chặn
+        return projectCache.findByApiKey(apiKey)
+                .filter(project -> project.loginAttemptLimit() != null && project.loginAttemptWindowSeconds() != null)
+                .map(project -> new Limit(project.loginAttemptLimit(), clampWindow(project.loginAttemptWindowSeconds())))
+                .orElse(accountLimit);
+    }
+
+    private Duration clampWindow(int windowSeconds) {
+        Duration window = Duration.ofSeconds(windowSeconds);
+        return window.compareTo(maxAccountWindow) > 0 ? maxAccountWindow : window;
+    }
+
+    private static boolean tryAcquire(Cache<String, TokenBucket> buckets, String key, Limit limit) {
+        long now = System.nanoTime();
+        try {
+            TokenBucket bucket = buckets.get(key, () -> new TokenBucket(now));
+            return bucket.tryAcquire(now, limit.intervalNanos(), limit.burstToleranceNanos());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Cache<String, TokenBucket> newBucketCache(long maxTrackedKeys, Duration idleTimeout) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(idleTimeout)
+                .concurrencyLevel(16)
+                .build();
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
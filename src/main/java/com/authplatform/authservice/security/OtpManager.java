@@ -0,0 +1,85 @@
+package com.authplatform.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Sinh và kiểm tra OTP đặt lại mật khẩu.
+ * OTP chỉ có 6 chữ số nên được băm bằng HMAC với khóa bí mật của server (hash lộ ra cũng không dò ngược được),
+ * mỗi mã có tối đa `security.otp.max-attempts` lần thử và chỉ dùng được một lần.
+ */
+@Slf4j
+@Component
+public class OtpManager {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final OtpStore otpStore;
+    private final SecretKeySpec hmacKey;
+    private final Duration ttl;
+    private final int maxAttempts;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public OtpManager(
+            OtpStore otpStore,
+            @Value("${security.otp.secret:${jwt.secret}}") String secret,
+            @Value("${security.otp.ttl:5m}") Duration ttl,
+            @Value("${security.otp.max-attempts:5}") int maxAttempts
+    ) {
+        this.otpStore = otpStore;
+        this.hmacKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    // Sinh mã 6 số mới cho (scope, email), thay thế mã cũ nếu có
+    public String issue(long scope, String email) {
+        String otp = String.format("%06d", secureRandom.nextInt(1_000_000));
+        otpStore.save(scope, email, hash(scope, email, otp), Instant.now().plus(ttl));
+        return otp;
+    }
+
+    // true nếu mã đúng; mã đúng bị xóa ngay nên không dùng lại được
+    public boolean verify(long scope, String email, String otp) {
+        byte[] stored = otpStore.recordAttempt(scope, email, maxAttempts, Instant.now());
+        if (stored == null || otp == null) {
+            return false;
+        }
+        byte[] candidate = hash(scope, email, otp);
+        return MessageDigest.isEqual(stored, candidate) && otpStore.remove(scope, email, candidate);
+    }
+
+    @Scheduled(fixedDelayString = "${security.otp.cleanup-interval:10m}")
+    public void deleteExpired() {
+        int deleted = otpStore.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("Deleted {} expired OTP codes", deleted);
+        }
+    }
+
+    // Gắn scope và email vào dữ liệu băm để hash không dùng được cho tài khoản khác
+    private byte[] hash(long scope, String email, String otp) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            return mac.doFinal((scope + ":" + email + ":" + otp).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.authplatform.authservice.security;
+
+import java.time.Instant;
+
+/**
+ * Nơi lưu OTP đặt lại mật khẩu, theo khóa (scope, email): scope là id Project, {@link #PLATFORM_SCOPE} cho Owner.
+ * Chỉ lưu hash của OTP; việc sinh mã, băm và so sánh nằm ở {@link OtpManager}.
+ */
+public interface OtpStore {
+
+    long PLATFORM_SCOPE = 0L;
+
+    // Ghi đè mã cũ (nếu có) và đặt lại số lần thử
+    void save(long scope, String email, byte[] otpHash, Instant expiresAt);
+
+    /**
+     * Tăng số lần thử và trả về hash đang lưu, hoặc null nếu không có mã, mã đã hết hạn
+     * hoặc đã dùng hết {@code maxAttempts} lần thử.
+     */
+    byte[] recordAttempt(long scope, String email, int maxAttempts, Instant now);
+
+    // Xóa mã nếu hash vẫn khớp; true nghĩa là lời gọi này đã tiêu thụ mã (mỗi mã chỉ dùng được một lần)
+    boolean remove(long scope, String email, byte[] otpHash);
+
+    int deleteExpired(Instant now);
+}
@@ -0,0 +1,123 @@
+package com.authplatform.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.crypto.scrypt.SCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Dựng {@link DelegatingPasswordEncoder} (hash có prefix `{id}`) và chọn hệ số chi phí cho thuật toán băm hiện hành
+ * sao cho một lần băm trên máy hiện tại xấp xỉ thời gian mục tiêu.
+ * Hash cũ không có prefix được coi là BCrypt; {@code upgradeEncoding} trả true cho hash khác thuật toán hoặc chi phí thấp hơn,
+ * để đăng nhập thành công băm lại mật khẩu một cách trong suốt.
+ * <p>
+ * Hash PBKDF2 không lưu số lượt lặp, nên PBKDF2 không bao giờ được hiệu chỉnh: số lượt lặp cố định theo cấu hình
+ * và encoder luôn được đăng ký với đúng số đó, dù PBKDF2 có là thuật toán hiện hành hay không.
+ */
+@Slf4j
+public final class PasswordHashCalibrator {
+
+    public enum Algorithm {
+        // Hệ số: log2 số vòng
+        BCRYPT("bcrypt", 10, 16, true, true, BCryptPasswordEncoder::new),
+        // Hệ số: số lượt lặp, bộ nhớ 16 MiB
+        ARGON2("argon2", 2, 10, false, true, iterations -> new Argon2PasswordEncoder(16, 32, 1, 1 << 14, iterations)),
+        // Hệ số: log2 CPU cost
+        SCRYPT("scrypt", 16, 20, true, true, log2Cost -> new SCryptPasswordEncoder(1 << log2Cost, 8, 1, 32, 16)),
+        // Hệ số: số lượt lặp, cố định theo cấu hình (không lưu trong hash)
+        PBKDF2("pbkdf2", 310_000, 5_000_000, false, false,
+                iterations -> new Pbkdf2PasswordEncoder("", 16, iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+
+        private final String id;
+        private final int minWorkFactor;
+        private final int maxWorkFactor;
+        private final boolean exponential;
+        // Tham số chi phí được lưu trong hash nên có thể đổi mà không làm hỏng hash cũ
+        private final boolean selfDescribing;
+        private final IntFunction<PasswordEncoder> factory;
+
+        Algorithm(String id, int minWorkFactor, int maxWorkFactor, boolean exponential, boolean selfDescribing,
+                  IntFunction<PasswordEncoder> factory) {
+            this.id = id;
+            this.minWorkFactor = minWorkFactor;
+            this.maxWorkFactor = maxWorkFactor;
+            this.exponential = exponential;
+            this.selfDescribing = selfDescribing;
+            this.factory = factory;
+        }
+
+        public static Algorithm from(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private PasswordHashCalibrator() {
+    }
+
+    /**
+     * @param target thời gian mục tiêu cho một lần băm; null hoặc 0 thì không hiệu chỉnh, dùng hệ số tối thiểu
+     * @param pbkdf2Iterations số lượt lặp PBKDF2 cố định; đổi giá trị này sẽ làm mọi hash PBKDF2 đã có không còn khớp
+     */
+    public static PasswordEncoder create(Algorithm algorithm, Duration target, int pbkdf2Iterations) {
+        boolean calibrate = target != null && !target.isZero();
+        if (calibrate && !algorithm.selfDescribing) {
+            log.warn("Password hashing target ignored for {}: its work factor is not stored in the hash, using {} iterations",
+                    algorithm.id, pbkdf2Iterations);
+        }
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        for (Algorithm candidate : Algorithm.values()) {
+            encoders.put(candidate.id, candidate.factory.apply(fixedWorkFactor(candidate, pbkdf2Iterations)));
+        }
+        if (calibrate && algorithm.selfDescribing) {
+            encoders.put(algorithm.id, algorithm.factory.apply(calibrate(algorithm, target)));
+        }
+
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm.id, encoders);
+        // Hash BCrypt cũ lưu không có prefix
+        delegating.setDefaultPasswordEncoderForMatches(encoders.get(Algorithm.BCRYPT.id));
+        return delegating;
+    }
+
+    // Thuật toán lưu tham số trong hash dùng hệ số tối thiểu khi không phải thuật toán hiện hành (vẫn kiểm tra được mọi hash);
+    // PBKDF2 luôn dùng đúng số lượt lặp đã cấu hình
+    private static int fixedWorkFactor(Algorithm algorithm, int pbkdf2Iterations) {
+        return algorithm == Algorithm.PBKDF2 ? pbkdf2Iterations : algorithm.minWorkFactor;
+    }
+
+    // Đo một lần băm ở hệ số tối thiểu rồi ngoại suy: thuật toán mũ tăng gấp đôi mỗi bậc, thuật toán tuyến tính tăng theo tỉ lệ
+    static int calibrate(Algorithm algorithm, Duration target) {
+        long measuredNanos = measure(algorithm.factory.apply(algorithm.minWorkFactor));
+        double ratio = (double) target.toNanos() / Math.max(measuredNanos, 1);
+
+        int workFactor = algorithm.exponential
+                ? algorithm.minWorkFactor + (int) Math.floor(Math.log(ratio) / Math.log(2))
+                : (int) Math.floor(algorithm.minWorkFactor * ratio);
+        workFactor = Math.max(algorithm.minWorkFactor, Math.min(algorithm.maxWorkFactor, workFactor));
+
+        log.info("Password hashing calibrated: {} work factor {} ({} ms at minimum {}, target {} ms)",
+                algorithm.id, workFactor, measuredNanos / 1_000_000, algorithm.minWorkFactor, target.toMillis());
+        return workFactor;
+    }
+
+    // Lần đầu để làm nóng JIT, lấy giá trị nhỏ nhất của các lần sau để giảm nhiễu
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode("calibration-password");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-password");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
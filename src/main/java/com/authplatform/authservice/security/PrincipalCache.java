@@ -0,0 +1,83 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.authplatform.authservice.repository.EndUserRepository;
+import com.authplatform.authservice.repository.OwnerRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Near cache cho {@link PrincipalSnapshot}, tránh truy vấn Owner/EndUser (kèm roles) ở mỗi request.
+ * Entry bị xóa khi có {@link PrincipalChangedEvent} và tự hết hạn sau `security.principal-cache.ttl`.
+ */
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, Entry> cache;
+    private final PrincipalInvalidations invalidations;
+    private final OwnerRepository ownerRepository;
+    private final EndUserRepository endUserRepository;
+
+    public PrincipalCache(
+            OwnerRepository ownerRepository,
+            EndUserRepository endUserRepository,
+            @Value("${security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${security.principal-cache.ttl:60s}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.ownerRepository = ownerRepository;
+        this.endUserRepository = endUserRepository;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidations = new PrincipalInvalidations(ttl);
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "auth.principal");
+    }
+
+    public PrincipalSnapshot getOwner(String email) {
+        return get(PrincipalChangedEvent.ownerKey(email), () -> ownerRepository.findByEmail(email)
+                .map(PrincipalSnapshot::of)
+                .orElse(null));
+    }
+
+    public PrincipalSnapshot getEndUser(Long projectId, String email) {
+        return get(PrincipalChangedEvent.endUserKey(projectId, email), () -> endUserRepository.findByEmailAndProjectId(email, projectId)
+                .map(PrincipalSnapshot::of)
+                .orElse(null));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        invalidations.invalidate(event);
+    }
+
+    private PrincipalSnapshot get(String key, Supplier<PrincipalSnapshot> loader) {
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (!invalidations.isStale(key, cached.loadedAt())) {
+                return cached.snapshot();
+            }
+            cache.invalidate(key);
+        }
+        long epochAtLoad = invalidations.stamp();
+        PrincipalSnapshot loaded = loader.get();
+        // Không ghi lại snapshot đã load trước một lần invalidation
+        if (loaded != null && invalidations.stamp() == epochAtLoad) {
+            cache.put(key, new Entry(loaded, epochAtLoad));
+        }
+        return loaded;
+    }
+
+    private record Entry(PrincipalSnapshot snapshot, long loadedAt) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ghi lại thời điểm (dạng số thứ tự tăng dần) mỗi principal key hoặc tiền tố project bị invalidate, để cache kiểm tra
+ * entry cũ khi đọc thay vì quét toàn bộ cache ở mỗi {@link PrincipalChangedEvent}: invalidate và kiểm tra đều O(1).
+ * <p>
+ * Mốc được giữ ít nhất bằng TTL của cache sử dụng nó: cache chỉ ghi entry khi không có invalidation nào xảy ra trong
+ * lúc load ({@link #stamp()} không đổi), nên mọi entry bị một mốc vô hiệu đều hết hạn trước khi mốc đó bị xóa.
+ */
+public class PrincipalInvalidations {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, Long> invalidatedAt;
+
+    public PrincipalInvalidations(Duration retention) {
+        // Không giới hạn số lượng: bị evict sớm sẽ làm entry cũ được coi là còn hiệu lực
+        this.invalidatedAt = CacheBuilder.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    // Số thứ tự hiện tại, lấy trước khi load dữ liệu
+    public long stamp() {
+        return sequence.get();
+    }
+
+    public void invalidate(PrincipalChangedEvent event) {
+        invalidatedAt.put(event.key(), sequence.incrementAndGet());
+    }
+
+    // Entry load ở loadedAt đã cũ nếu chính principal đó hoặc cả project của nó bị invalidate sau thời điểm load
+    public boolean isStale(String principalKey, long loadedAt) {
+        Long exact = invalidatedAt.getIfPresent(principalKey);
+        if (exact != null && exact > loadedAt) {
+            return true;
+        }
+        Long scope = invalidatedAt.getIfPresent(principalKey.substring(0, principalKey.lastIndexOf(':') + 1));
+        return scope != null && scope > loadedAt;
+    }
+}
@@ -0,0 +1,114 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.model.EndUser;
+import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.model.ProjectRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Ảnh chụp bất biến của user đã xác thực, được đặt vào SecurityContext thay cho entity JPA.
+ * Không giữ mật khẩu hay proxy lazy nên có thể cache và dùng chung giữa các request.
+ */
+public record PrincipalSnapshot(
+        Type type,
+        Long id,
+        String email,
+        Long projectId,
+        Set<String> roles,
+        int maxRoleLevel,
+        boolean emailVerified,
+        boolean locked,
+        Instant passwordLastChangedAt,
+        List<GrantedAuthority> authorities
+) implements UserDetails {
+
+    public enum Type {
+        OWNER,
+        END_USER
+    }
+
+    public PrincipalSnapshot {
+        roles = Set.copyOf(roles);
+        authorities = List.copyOf(authorities);
+    }
+
+    public static PrincipalSnapshot of(Owner owner) {
+        String role = owner.getRole().name();
+        return new PrincipalSnapshot(
+                Type.OWNER,
+                owner.getId(),
+                owner.getEmail(),
+                null,
+                Set.of(role),
+                0,
+                owner.isEmailVerified(),
+                owner.isLocked(),
+                owner.getPasswordLastChangedAt(),
+                List.of(new SimpleGrantedAuthority(role))
+        );
+    }
+
+    public static PrincipalSnapshot of(EndUser endUser) {
+        Set<String> roleNames = endUser.getRoles().stream()
+                .map(ProjectRole::getName)
+                .collect(Collectors.toSet());
+        int maxLevel = endUser.getRoles().stream()
+                .mapToInt(ProjectRole::getLevel)
+                .max()
+                .orElse(0);
+        return new PrincipalSnapshot(
+                Type.END_USER,
+                endUser.getId(),
+                endUser.getEmail(),
+                endUser.getProject().getId(),
+                roleNames,
+                maxLevel,
+                endUser.isEmailVerified(),
+                endUser.isLocked(),
+                endUser.getPasswordLastChangedAt(),
+                roleNames.stream()
+                        .map(name -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + name))
+                        .toList()
+        );
+    }
+
+    public boolean isOwner() {
+        return type == Type.OWNER;
+    }
+
+    public boolean isEndUser() {
+        return type == Type.END_USER;
+    }
+
+    @Override
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !locked;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return emailVerified;
+    }
+}
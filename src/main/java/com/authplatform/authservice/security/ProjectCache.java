@@ -0,0 +1,99 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.ProjectChangedEvent;
+import com.authplatform.authservice.exception.ProjectNotFoundException;
+import com.authplatform.authservice.repository.ProjectRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tra apiKey → {@link ProjectSnapshot} trong bộ nhớ thay vì `findByApiKey` (load cả Owner và allowedOrigins) ở mỗi request.
+ * apiKey không tồn tại (thường từ scanner) được nhớ trong một cache âm riêng, có thời hạn ngắn,
+ * nên bị từ chối mà không chạm tới Postgres. Entry bị xóa khi có {@link ProjectChangedEvent};
+ * với nhiều instance, thay đổi ở instance khác có hiệu lực sau `security.project-cache.ttl`.
+ * Kết quả nạp chỉ được ghi vào cache nếu không có event nào đến trong lúc nạp, để ảnh chụp đọc trước khi
+ * transaction cập nhật commit không bị ghi lại sau khi entry đã bị xóa.
+ */
+@Component
+public class ProjectCache {
+
+    // Cột api_key dài tối đa 255, key dài hơn chắc chắn không tồn tại và cũng không nên chiếm chỗ trong cache âm
+    private static final int MAX_API_KEY_LENGTH = 255;
+
+    private final ProjectRepository projectRepository;
+    private final Cache<String, ProjectSnapshot> projects;
+    private final Cache<String, Boolean> unknownApiKeys;
+    // Tăng ở mỗi ProjectChangedEvent
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProjectCache(
+            ProjectRepository projectRepository,
+            @Value("${security.project-cache.max-size:10000}") long maxSize,
+            @Value("${security.project-cache.ttl:5m}") Duration ttl,
+            @Value("${security.project-cache.negative-max-size:100000}") long negativeMaxSize,
+            @Value("${security.project-cache.negative-ttl:1m}") Duration negativeTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.projectRepository = projectRepository;
+        this.projects = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.unknownApiKeys = CacheBuilder.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, projects, "auth.project");
+        GuavaCacheMetrics.monitor(meterRegistry, unknownApiKeys, "auth.project.unknown");
+    }
+
+    public Optional<ProjectSnapshot> findByApiKey(String apiKey) {
+        if (apiKey == null || apiKey.length() > MAX_API_KEY_LENGTH) {
+            return Optional.empty();
+        }
+        ProjectSnapshot cached = projects.getIfPresent(apiKey);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (unknownApiKeys.getIfPresent(apiKey) != null) {
+            return Optional.empty();
+        }
+
+        long epochAtLoad = invalidations.get();
+        Optional<ProjectSnapshot> loaded = projectRepository.findSnapshotByApiKey(apiKey)
+                .map(snapshot -> snapshot.withAllowedOrigins(projectRepository.findAllowedOrigins(snapshot.id())));
+        if (loaded.isPresent()) {
+            projects.put(apiKey, loaded.get());
+        } else {
+            unknownApiKeys.put(apiKey, Boolean.TRUE);
+        }
+        // Có event trong lúc nạp: kết quả có thể đã cũ, bỏ khỏi cache (kiểm tra sau khi ghi để không lọt event đến giữa chừng)
+        if (invalidations.get() != epochAtLoad) {
+            projects.invalidate(apiKey);
+            unknownApiKeys.invalidate(apiKey);
+        }
+        return loaded;
+    }
+
+    public ProjectSnapshot getByApiKey(String apiKey) {
+        return findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        invalidations.incrementAndGet();
+        projects.invalidate(event.apiKey());
+        unknownApiKeys.invalidate(event.apiKey());
+    }
+}
@@ -0,0 +1,79 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.ProjectChangedEvent;
+import com.authplatform.authservice.repository.ProjectRepository;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Chỉ mục ownerId → danh sách projectId (mảng long đã sắp xếp) cho kiểm tra quyền của Owner.
+ * Nạp lười bằng một truy vấn id khi Owner được kiểm tra lần đầu; sau đó mỗi lần kiểm tra chỉ là binary search trong bộ nhớ.
+ * Project mới được thêm vào mảng khi tạo. Hiện không có thao tác chuyển chủ Project; nếu thêm, event cần mang
+ * ownerId cũ để xóa đúng entry đó.
+ * Với nhiều instance, thay đổi ở instance khác có hiệu lực sau `security.ownership-cache.ttl`.
+ */
+@Component
+public class ProjectOwnershipIndex {
+
+    private final ProjectRepository projectRepository;
+    private final Cache<Long, long[]> projectIdsByOwner;
+
+    public ProjectOwnershipIndex(
+            ProjectRepository projectRepository,
+            @Value("${security.ownership-cache.max-size:10000}") long maxSize,
+            @Value("${security.ownership-cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.projectRepository = projectRepository;
+        this.projectIdsByOwner = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, projectIdsByOwner, "auth.project.ownership");
+    }
+
+    public boolean isOwner(long ownerId, long projectId) {
+        return Arrays.binarySearch(projectIdsOf(ownerId), projectId) >= 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProjectChanged(ProjectChangedEvent event) {
+        long projectId = event.projectId();
+        // Mảng không bao giờ bị sửa tại chỗ: thay bằng mảng mới để thread đang đọc không thấy trạng thái dở dang
+        projectIdsByOwner.asMap().computeIfPresent(event.ownerId(), (ownerId, projectIds) -> withProject(projectIds, projectId));
+    }
+
+    private long[] projectIdsOf(long ownerId) {
+        try {
+            return projectIdsByOwner.get(ownerId, () -> projectRepository.findIdsByOwnerId(ownerId).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load projects of owner " + ownerId, e.getCause());
+        }
+    }
+
+    private static long[] withProject(long[] projectIds, long projectId) {
+        int index = Arrays.binarySearch(projectIds, projectId);
+        if (index >= 0) {
+            return projectIds;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[projectIds.length + 1];
+        System.arraycopy(projectIds, 0, updated, 0, insertAt);
+        updated[insertAt] = projectId;
+        System.arraycopy(projectIds, insertAt, updated, insertAt + 1, projectIds.length - insertAt);
+        return updated;
+    }
+}
@@ -0,0 +1,48 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.model.Project;
+
+import java.util.List;
+
+/**
+ * Ảnh chụp bất biến của Project dùng cho các request `/api/p/{apiKey}/...`,
+ * không kéo theo Owner hay collection lazy nên có thể cache và dùng chung giữa các thread.
+ */
+public record ProjectSnapshot(
+        Long id,
+        String apiKey,
+        String name,
+        Long ownerId,
+        List<String> allowedOrigins,
+        Long refreshTokenTtlSeconds,
+        Integer loginAttemptLimit,
+        Integer loginAttemptWindowSeconds
+) {
+
+    public ProjectSnapshot {
+        allowedOrigins = allowedOrigins == null ? List.of() : List.copyOf(allowedOrigins);
+    }
+
+    // Dùng cho truy vấn JPQL constructor expression; allowedOrigins được nạp riêng
+    public ProjectSnapshot(Long id, String apiKey, String name, Long ownerId,
+                           Long refreshTokenTtlSeconds, Integer loginAttemptLimit, Integer loginAttemptWindowSeconds) {
+        this(id, apiKey, name, ownerId, List.of(), refreshTokenTtlSeconds, loginAttemptLimit, loginAttemptWindowSeconds);
+    }
+
+    public static ProjectSnapshot of(Project project) {
+        return new ProjectSnapshot(
+                project.getId(),
+                project.getApiKey(),
+                project.getName(),
+                project.getOwner().getId(),
+                project.getAllowedOrigins(),
+                project.getRefreshTokenTtlSeconds(),
+                project.getLoginAttemptLimit(),
+                project.getLoginAttemptWindowSeconds()
+        );
+    }
+
+    public ProjectSnapshot withAllowedOrigins(List<String> origins) {
+        return new ProjectSnapshot(id, apiKey, name, ownerId, origins, refreshTokenTtlSeconds, loginAttemptLimit, loginAttemptWindowSeconds);
+    }
+}
@@ -0,0 +1,75 @@
+package com.authplatform.authservice.security;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Mã hóa khóa bí mật của key ring trước khi ghi vào `jwt_signing_keys` (AES-256-GCM).
+ * Khóa AES được dẫn xuất bằng HMAC-SHA256 từ secret cấu hình, kid là dữ liệu xác thực kèm theo
+ * nên không thể chép ciphertext sang dòng khác. Giá trị lưu có dạng `v1:` + base64(IV || ciphertext || tag).
+ */
+final class SigningKeyCipher {
+
+    private static final String PREFIX = "v1:";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    SigningKeyCipher(String keyEncryptionSecret) {
+        if (keyEncryptionSecret == null || keyEncryptionSecret.isBlank()) {
+            throw new IllegalStateException("jwt.rotation.key-encryption-key must be set when key rotation is enabled");
+        }
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(keyEncryptionSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            this.key = new SecretKeySpec(mac.doFinal("jwt-signing-key-encryption".getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 not available", e);
+        }
+    }
+
+    // Dòng ghi trước khi có mã hóa chỉ là base64 thô
+    static boolean isEncrypted(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    String encrypt(String kid, byte[] plaintext) {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            byte[] out = ByteBuffer.allocate(iv.length + ciphertext.length).put(iv).put(ciphertext).array();
+            return PREFIX + Base64.getEncoder().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt signing key " + kid, e);
+        }
+    }
+
+    byte[] decrypt(String kid, String stored) {
+        if (!isEncrypted(stored)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        try {
+            byte[] in = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, in, 0, IV_LENGTH));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            return cipher.doFinal(in, IV_LENGTH, in.length - IV_LENGTH);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Cannot decrypt signing key " + kid
+                    + " (was jwt.rotation.key-encryption-key changed?)", e);
+        }
+    }
+}
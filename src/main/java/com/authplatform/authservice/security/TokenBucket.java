@@ -0,0 +1,30 @@
+package com.authplatform.authservice.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket không khóa, cài đặt theo GCRA: chỉ lưu "thời điểm đến lý thuyết" (TAT) trong một AtomicLong.
+ * Cho phép tối đa {@code attempts} lần liên tiếp, sau đó hồi một lượt mỗi {@code window / attempts}.
+ * Trạng thái không phụ thuộc tham số, nên giới hạn của project có thể thay đổi mà không cần tạo lại bucket.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrivalNanos;
+
+    TokenBucket(long nowNanos) {
+        this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+    }
+
+    boolean tryAcquire(long nowNanos, long intervalNanos, long burstToleranceNanos) {
+        while (true) {
+            long current = theoreticalArrivalNanos.get();
+            long base = Math.max(current, nowNanos);
+            if (base - nowNanos > burstToleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(current, base + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.authplatform.authservice.security;
+
+/**
+ * Một dòng thay đổi thế hệ token đọc từ DB, dùng để đồng bộ bảng trong bộ nhớ giữa các replica.
+ * {@code projectId == null} nghĩa là Owner.
+ */
+public record TokenGenerationChange(Long userId, Long projectId, int generation) {
+
+    // Dòng của Owner
+    public TokenGenerationChange(Long userId, int generation) {
+        this(userId, null, generation);
+    }
+}
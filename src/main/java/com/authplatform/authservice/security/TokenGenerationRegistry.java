@@ -0,0 +1,146 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.TokenGenerationChangedEvent;
+import com.authplatform.authservice.event.TokenGenerationsChangedEvent;
+import com.authplatform.authservice.repository.EndUserRepository;
+import com.authplatform.authservice.repository.OwnerRepository;
+import com.authplatform.authservice.util.LongIntHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bảng thế hệ token hiện tại của từng user, giữ trong bộ nhớ theo từng project (userId → generation).
+ * Token có claim `gen` nhỏ hơn thế hệ hiện tại là token đã bị thu hồi.
+ * Bảng được nạp lười từ DB khi gặp user lần đầu, cập nhật ngay khi transaction thay đổi thế hệ commit,
+ * và định kỳ đọc các thay đổi từ DB để đồng bộ với những replica khác.
+ * Poll dựa trên mốc thời gian nên có thể bỏ lỡ thay đổi (transaction commit muộn hơn poll-overlap, lệch đồng hồ):
+ * token mang thế hệ lớn hơn bảng được đối chiếu lại với DB, và toàn bộ bảng bị bỏ sau mỗi `resync-interval`.
+ */
+@Slf4j
+@Component
+public class TokenGenerationRegistry {
+
+    // User không tồn tại: không khớp với bất kỳ token nào
+    public static final int UNKNOWN = -1;
+
+    // Thay bằng bảng mới khi resync, nên đọc vào biến cục bộ trước khi dùng
+    private volatile LongIntHashMap owners = new LongIntHashMap(256);
+    private final Map<Long, LongIntHashMap> projects = new ConcurrentHashMap<>();
+    private final OwnerRepository ownerRepository;
+    private final EndUserRepository endUserRepository;
+    private final Duration pollOverlap;
+    private volatile Instant lastPolledAt = Instant.now();
+
+    public TokenGenerationRegistry(
+            OwnerRepository ownerRepository,
+            EndUserRepository endUserRepository,
+            @Value("${security.token-generation.poll-overlap:5s}") Duration pollOverlap
+    ) {
+        this.ownerRepository = ownerRepository;
+        this.endUserRepository = endUserRepository;
+        this.pollOverlap = pollOverlap;
+    }
+
+    public int currentOwnerGeneration(long ownerId) {
+        LongIntHashMap table = owners;
+        int generation = table.get(ownerId, UNKNOWN);
+        return generation != UNKNOWN ? generation : loadOwner(table, ownerId);
+    }
+
+    public int currentEndUserGeneration(long projectId, long endUserId) {
+        LongIntHashMap table = tableOf(projectId);
+        int generation = table.get(endUserId, UNKNOWN);
+        return generation != UNKNOWN ? generation : loadEndUser(table, projectId, endUserId);
+    }
+
+    // Token chưa có claim `gen` (phát hành trước khi có cơ chế này) được coi là thế hệ 0
+    public boolean isCurrent(PrincipalSnapshot principal, VerifiedToken token) {
+        return principal.isOwner()
+                ? isCurrentOwnerToken(principal.id(), token.generationOrZero())
+                : isCurrentEndUserToken(principal.projectId(), principal.id(), token.generationOrZero());
+    }
+
+    // Token mới hơn bảng nghĩa là replica này chưa nhận thay đổi: đọc lại từ DB thay vì từ chối
+    public boolean isCurrentOwnerToken(long ownerId, int tokenGeneration) {
+        LongIntHashMap table = owners;
+        int current = table.get(ownerId, UNKNOWN);
+        if (current == UNKNOWN || tokenGeneration > current) {
+            current = loadOwner(table, ownerId);
+        }
+        return current != UNKNOWN && tokenGeneration == current;
+    }
+
+    public boolean isCurrentEndUserToken(long projectId, long endUserId, int tokenGeneration) {
+        LongIntHashMap table = tableOf(projectId);
+        int current = table.get(endUserId, UNKNOWN);
+        if (current == UNKNOWN || tokenGeneration > current) {
+            current = loadEndUser(table, projectId, endUserId);
+        }
+        return current != UNKNOWN && tokenGeneration == current;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenerationChanged(TokenGenerationChangedEvent event) {
+        LongIntHashMap table = event.projectId() == null ? owners : tableOf(event.projectId());
+        table.putIfGreater(event.userId(), event.generation());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGenerationsChanged(TokenGenerationsChangedEvent event) {
+        event.changes().forEach(change -> tableOf(change.projectId()).putIfGreater(change.userId(), change.generation()));
+    }
+
+    // Thay đổi do replica khác ghi vào DB; lùi mốc thời gian một đoạn để không bỏ sót transaction commit muộn
+    @Scheduled(fixedDelayString = "${security.token-generation.poll-interval:5s}")
+    public void pollChanges() {
+        Instant startedAt = Instant.now();
+        Instant since = lastPolledAt.minus(pollOverlap);
+        try {
+            ownerRepository.findTokenGenerationChangesSince(since)
+                    .forEach(change -> owners.putIfGreater(change.userId(), change.generation()));
+            endUserRepository.findTokenGenerationChangesSince(since)
+                    .forEach(change -> tableOf(change.projectId()).putIfGreater(change.userId(), change.generation()));
+            lastPolledAt = startedAt;
+        } catch (RuntimeException e) {
+            log.warn("Failed to poll token generation changes, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Lưới an toàn cho thay đổi mà poll bỏ lỡ: bỏ mọi bảng để thế hệ được nạp lại từ DB ở lần gặp user tiếp theo
+    @Scheduled(fixedDelayString = "${security.token-generation.resync-interval:10m}",
+            initialDelayString = "${security.token-generation.resync-interval:10m}")
+    public void resync() {
+        owners = new LongIntHashMap(256);
+        projects.clear();
+    }
+
+    private int loadOwner(LongIntHashMap table, long ownerId) {
+        return ownerRepository.findTokenGeneration(ownerId)
+                .map(loaded -> advance(table, ownerId, loaded))
+                .orElse(UNKNOWN);
+    }
+
+    private int loadEndUser(LongIntHashMap table, long projectId, long endUserId) {
+        return endUserRepository.findTokenGeneration(endUserId, projectId)
+                .map(loaded -> advance(table, endUserId, loaded))
+                .orElse(UNKNOWN);
+    }
+
+    private LongIntHashMap tableOf(long projectId) {
+        return projects.computeIfAbsent(projectId, id -> new LongIntHashMap(64));
+    }
+
+    // Bộ đếm chỉ tăng: giá trị đọc từ DB không được ghi đè một thế hệ mới hơn đã nhận qua event
+    private static int advance(LongIntHashMap table, long userId, int loaded) {
+        table.putIfGreater(userId, loaded);
+        return table.get(userId, loaded);
+    }
+}
@@ -0,0 +1,96 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Cache kết quả xác minh bearer token, khóa bằng SHA-256 của token.
+ * Entry sống tối đa tới `exp` của token và không quá `security.token-cache.ttl`
+ * (giới hạn độ trễ khi có nhiều replica, vì event xóa cache chỉ phát trong node hiện tại).
+ */
+@Component
+public class TokenVerificationCache {
+
+    private final Cache<String, Entry> cache;
+
+    // Mốc invalidation theo principal/project, entry cũ bị bỏ qua khi đọc thay vì quét cache ở mỗi event
+    private final PrincipalInvalidations invalidations;
+
+    public TokenVerificationCache(
+            @Value("${security.token-cache.max-size:10000}") long maxSize,
+            @Value("${security.token-cache.ttl:60s}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.invalidations = new PrincipalInvalidations(ttl);
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "jwt.verification");
+    }
+
+    public String keyOf(String jwt) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public CachedVerification get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        CachedVerification cached = entry.verification();
+        if (cached.token().isExpired() || invalidations.isStale(cached.principalKey(), entry.loadedAt())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return cached;
+    }
+
+    public long currentEpoch() {
+        return invalidations.stamp();
+    }
+
+    // Chỉ ghi nếu không có invalidation nào xảy ra kể từ lúc bắt đầu load (epochAtLoad)
+    public void put(String key, CachedVerification verification, long epochAtLoad) {
+        if (invalidations.stamp() == epochAtLoad) {
+            cache.put(key, new Entry(verification, epochAtLoad));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        invalidations.invalidate(event);
+    }
+
+    private record Entry(CachedVerification verification, long loadedAt) {
+    }
+
+    /**
+     * Kết quả xác minh đã cache. {@code principal == null} nghĩa là token có chữ ký hợp lệ nhưng đã bị từ chối
+     * (đổi mật khẩu, user không tồn tại...), nên các lần gửi lại không cần truy vấn DB.
+     */
+    public record CachedVerification(VerifiedToken token, String principalKey, PrincipalSnapshot principal) {
+
+        public boolean isAuthenticated() {
+            return principal != null;
+        }
+    }
+}
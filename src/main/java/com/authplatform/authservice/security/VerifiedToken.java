@@ -0,0 +1,91 @@
+package com.authplatform.authservice.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Kết quả bất biến của một lần parse + xác minh chữ ký JWT.
+ * Mọi bước kiểm tra phía sau (filter, validate-token, controller) đọc từ đối tượng này thay vì parse lại token.
+ */
+public record VerifiedToken(
+        String subject,
+        String audience,
+        Instant issuedAt,
+        Instant expiration,
+        String apiKey,
+        Integer generation,
+        Long userId,
+        Set<String> roles,
+        Integer maxRoleLevel
+) {
+
+    private static final String END_USER_AUDIENCE_PREFIX = "END_USER_PROJECT:";
+
+    public static VerifiedToken from(Claims claims) {
+        return new VerifiedToken(
+                claims.getSubject(),
+                firstAudience(claims.getAudience()),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims.get("apiKey", String.class),
+                claims.get("gen", Integer.class),
+                claims.get("uid", Long.class),
+                toRoleSet(claims.get("roles", List.class)),
+                claims.get("lvl", Integer.class)
+        );
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+
+    // Token phát hành trước lần đổi mật khẩu gần nhất thì không còn hiệu lực
+    public boolean isIssuedBefore(Instant instant) {
+        return instant != null && issuedAt != null && issuedAt.isBefore(instant);
+    }
+
+    // Token phát hành trước khi có claim `gen` được coi là thế hệ 0
+    public int generationOrZero() {
+        return generation != null ? generation : 0;
+    }
+
+    // Token EndUser được phát hành với jwt.enduser.embed-claims=true mang đủ uid, roles và lvl
+    public boolean hasEmbeddedClaims() {
+        return userId != null && roles != null && maxRoleLevel != null;
+    }
+
+    // Project id lấy từ audience "END_USER_PROJECT:<id>", null nếu không phải token EndUser
+    public Long endUserProjectId() {
+        if (audience == null || !audience.startsWith(END_USER_AUDIENCE_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(audience.substring(END_USER_AUDIENCE_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Set<String> toRoleSet(List<?> roles) {
+        if (roles == null) {
+            return null;
+        }
+        return roles.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String firstAudience(Set<String> audienceSet) {
+        if (audienceSet == null || audienceSet.isEmpty()) {
+            return null;
+        }
+        return audienceSet.iterator().next();
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+}
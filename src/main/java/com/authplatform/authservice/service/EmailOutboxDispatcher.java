@@ -0,0 +1,165 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.model.EmailOutboxMessage;
+import com.authplatform.authservice.model.EmailOutboxStatus;
+import com.authplatform.authservice.repository.EmailOutboxRepository;
+import com.google.common.collect.Lists;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lấy email đến hạn từ outbox theo lô và gửi trên emailExecutor; mỗi lô được chia đều cho các kết nối SMTP
+ * của PooledMailSender để nhiều thư đi chung một kết nối.
+ * Lô được "nhận" trong một transaction ngắn (FOR UPDATE SKIP LOCKED, chuyển sang SENDING kèm hạn thuê),
+ * còn SMTP chạy ngoài transaction nên không giữ kết nối DB. Lỗi được thử lại với backoff lũy thừa,
+ * quá `app.email.outbox.max-attempts` lần thì chuyển sang DEAD.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.email.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final ThreadPoolTaskExecutor emailExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int connections;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration sendLease;
+    private final Duration sentRetention;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter deadCounter;
+
+    public EmailOutboxDispatcher(
+            EmailOutboxRepository emailOutboxRepository,
+            EmailService emailService,
+            @Qualifier("emailExecutor") ThreadPoolTaskExecutor emailExecutor,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.email.outbox.batch-size:20}") int batchSize,
+            @Value("${app.email.smtp.pool-size:2}") int connections,
+            @Value("${app.email.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.email.outbox.initial-backoff:30s}") Duration initialBackoff,
+            @Value("${app.email.outbox.max-backoff:1h}") Duration maxBackoff,
+            @Value("${app.email.outbox.send-lease:5m}") Duration sendLease,
+            @Value("${app.email.outbox.sent-retention:7d}") Duration sentRetention,
+            MeterRegistry meterRegistry
+    ) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.emailExecutor = emailExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.connections = connections;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.sendLease = sendLease;
+        this.sentRetention = sentRetention;
+        this.sentCounter = Counter.builder("auth.email.outbox").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.email.outbox").tag("result", "retry").register(meterRegistry);
+        this.deadCounter = Counter.builder("auth.email.outbox").tag("result", "dead").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval:2s}")
+    public void dispatch() {
+        List<EmailOutboxMessage> batch;
+        do {
+            batch = claimBatch();
+            int chunkSize = Math.max(1, (batch.size() + connections - 1) / connections);
+            List<CompletableFuture<Void>> sends = Lists.partition(batch, chunkSize).stream()
+                    .map(chunk -> CompletableFuture.runAsync(() -> send(chunk), emailExecutor))
+                    .toList();
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.cleanup-interval:1h}")
+    public void deleteSentMessages() {
+        emailOutboxRepository.deleteByStatusAndSentAtBefore(EmailOutboxStatus.SENT, Instant.now().minus(sentRetention));
+    }
+
+    private List<EmailOutboxMessage> claimBatch() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<EmailOutboxMessage> due = emailOutboxRepository.lockDueMessages(now, batchSize);
+            for (EmailOutboxMessage message : due) {
+                message.setStatus(EmailOutboxStatus.SENDING);
+                message.setNextAttemptAt(now.plus(sendLease));
+            }
+            return emailOutboxRepository.saveAll(due);
+        });
+    }
+
+    private void send(List<EmailOutboxMessage> chunk) {
+        Map<EmailOutboxMessage, Exception> failures;
+        try {
+            failures = emailService.deliverAll(chunk);
+        } catch (InterruptedException e) {
+            // Đang tắt ứng dụng: để nguyên SENDING, lô sẽ được nhận lại khi hết hạn thuê
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        for (EmailOutboxMessage message : chunk) {
+            message.setAttempts(message.getAttempts() + 1);
+            Exception failure = failures.get(message);
+            if (failure == null) {
+                message.setStatus(EmailOutboxStatus.SENT);
+                message.setSentAt(Instant.now());
+                message.setLastError(null);
+                sentCounter.increment();
+            } else {
+                recordFailure(message, failure);
+            }
+        }
+        emailOutboxRepository.saveAll(chunk);
+    }
+
+    private void recordFailure(EmailOutboxMessage message, Exception e) {
+        int attempts = message.getAttempts();
+        message.setLastError(truncate(e.getClass().getSimpleName() + ": " + e.getMessage()));
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutboxStatus.DEAD);
+            deadCounter.increment();
+            log.error("Email {} to {} moved to dead letter after {} attempts", message.getId(), message.getRecipient(), attempts, e);
+            return;
+        }
+
+        message.setStatus(EmailOutboxStatus.PENDING);
+        message.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        failedCounter.increment();
+        log.warn("Failed to send email {} to {} (attempt {}/{}), will retry: {}",
+                message.getId(), message.getRecipient(), attempts, maxAttempts, e.getMessage());
+    }
+
+    // 30s, 1m, 2m, 4m... tối đa max-backoff
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
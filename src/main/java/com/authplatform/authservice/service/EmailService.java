@@ -1,32 +1,71 @@
 package com.authplatform.authservice.service;
 
+import com.authplatform.authservice.model.EmailOutboxMessage;
+import com.authplatform.authservice.model.EmailOutboxStatus;
+import com.authplatform.authservice.repository.EmailOutboxRepository;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private final PooledMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    // Ghi email vào outbox trong transaction hiện tại; EmailOutboxDispatcher gửi sau khi commit, request không chờ SMTP
+    @Transactional
+    public void enqueueEmail(String to, EmailTemplateService.RenderedEmail email) {
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+                .recipient(to)
+                .subject(email.subject())
+                .body(email.htmlBody())
+                .textBody(email.textBody())
+                .status(EmailOutboxStatus.PENDING)
+                .nextAttemptAt(Instant.now())
+                .build());
+    }
+
+    // Gửi cả lô trên một kết nối SMTP dùng chung; trả về các thư lỗi để dispatcher thử lại
+    public Map<EmailOutboxMessage, Exception> deliverAll(List<EmailOutboxMessage> messages) throws InterruptedException {
+        Map<EmailOutboxMessage, Exception> failures = new IdentityHashMap<>(); // entity dùng @Data, hashCode đổi theo nội dung
+        Map<MimeMessage, EmailOutboxMessage> byMimeMessage = new IdentityHashMap<>();
+        for (EmailOutboxMessage message : messages) {
+            try {
+                byMimeMessage.put(toMimeMessage(message), message);
+            } catch (MessagingException e) {
+                failures.put(message, e);
+            }
+        }
+
+        Map<MimeMessage, Exception> sendFailures = mailSender.send(List.copyOf(byMimeMessage.keySet()));
+        sendFailures.forEach((mimeMessage, e) -> failures.put(byMimeMessage.get(mimeMessage), e));
+        log.info("Sent {} of {} HTML emails", messages.size() - failures.size(), messages.size());
+        return failures;
+    }
 
-    public void sendHtmlEmail(String to, String subject, String htmlBody) {
+    private MimeMessage toMimeMessage(EmailOutboxMessage message) throws MessagingException {
         MimeMessage mimeMessage = mailSender.createMimeMessage();
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(htmlBody, true); // true = nội dung là HTML
-            mailSender.send(mimeMessage);
-            log.info("HTML email sent successfully to {}", to);
-        } catch (MessagingException e) {
-            log.error("Failed to send HTML email to {}", to, e);
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setTo(message.getRecipient());
+        helper.setSubject(message.getSubject());
+        if (message.getTextBody() != null) {
+            helper.setText(message.getTextBody(), message.getBody());
+        } else {
+            helper.setText(message.getBody(), true); // true = nội dung là HTML
         }
+        return mimeMessage;
     }
 
 }
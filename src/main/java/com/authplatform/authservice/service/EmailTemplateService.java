@@ -0,0 +1,187 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.EmailTemplateRequest;
+import com.authplatform.authservice.dto.EmailTemplateResponse;
+import com.authplatform.authservice.event.EmailTemplateChangedEvent;
+import com.authplatform.authservice.exception.InvalidEmailTemplateException;
+import com.authplatform.authservice.exception.ProjectNotFoundException;
+import com.authplatform.authservice.model.EmailTemplate;
+import com.authplatform.authservice.model.EmailTemplateType;
+import com.authplatform.authservice.model.Project;
+import com.authplatform.authservice.repository.EmailTemplateRepository;
+import com.authplatform.authservice.repository.ProjectRepository;
+import com.authplatform.authservice.util.CompiledTemplate;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Template email theo Project. Mỗi Project được biên dịch một lần thành mảng {@link CompiledTemplate} (theo loại email)
+ * và giữ trong cache; sửa hoặc khôi phục template sẽ xóa entry của Project đó sau khi transaction commit.
+ * Với nhiều instance, entry cũ ở instance khác hết hạn sau `app.email.templates.cache-ttl`.
+ */
+@Slf4j
+@Service
+public class EmailTemplateService {
+
+    private static final EmailTemplateType[] TYPES = EmailTemplateType.values();
+    private static final Compiled[] DEFAULTS = Arrays.stream(TYPES).map(EmailTemplateService::compileDefault).toArray(Compiled[]::new);
+
+    private final EmailTemplateRepository emailTemplateRepository;
+    private final ProjectRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoadingCache<Long, Compiled[]> cache;
+
+    public EmailTemplateService(
+            EmailTemplateRepository emailTemplateRepository,
+            ProjectRepository projectRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.email.templates.cache-size:10000}") long maxSize,
+            @Value("${app.email.templates.cache-ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.emailTemplateRepository = emailTemplateRepository;
+        this.projectRepository = projectRepository;
+        this.eventPublisher = eventPublisher;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(CacheLoader.from(this::load));
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "auth.email.templates");
+    }
+
+    public record RenderedEmail(String subject, String htmlBody, String textBody) {
+    }
+
+    /**
+     * Render email của Project ({@code projectId == null}: email của nền tảng, luôn dùng mặc định).
+     * {@code values} truyền theo đúng thứ tự {@link EmailTemplateType#getVariables()}.
+     */
+    public RenderedEmail render(Long projectId, EmailTemplateType type, String... values) {
+        Compiled[] templates = projectId == null ? DEFAULTS : cache.getUnchecked(projectId);
+        return templates[type.ordinal()].render(values);
+    }
+
+    public List<EmailTemplateResponse> getTemplates(Long projectId) {
+        Map<EmailTemplateType, EmailTemplate> customized = emailTemplateRepository.findByProjectId(projectId).stream()
+                .collect(Collectors.toMap(EmailTemplate::getType, Function.identity()));
+        return Arrays.stream(TYPES)
+                .map(type -> customized.containsKey(type) ? mapToResponse(customized.get(type)) : defaultResponse(type))
+                .toList();
+    }
+
+    @Transactional
+    public EmailTemplateResponse updateTemplate(Long projectId, EmailTemplateType type, EmailTemplateRequest request) {
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
+        String textBody = request.getTextBody() == null || request.getTextBody().isBlank() ? null : request.getTextBody();
+
+        // Biên dịch thử để báo lỗi biến không hợp lệ ngay khi lưu thay vì lúc gửi
+        try {
+            compile(type, request.getSubject(), request.getHtmlBody(), textBody);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEmailTemplateException(e.getMessage());
+        }
+
+        EmailTemplate template = emailTemplateRepository.findByProjectIdAndType(projectId, type)
+                .orElseGet(() -> EmailTemplate.builder().project(project).type(type).build());
+        template.setSubject(request.getSubject());
+        template.setHtmlBody(request.getHtmlBody());
+        template.setTextBody(textBody);
+
+        EmailTemplate saved = emailTemplateRepository.save(template);
+        eventPublisher.publishEvent(new EmailTemplateChangedEvent(projectId));
+        return mapToResponse(saved);
+    }
+
+    // Xóa bản tùy chỉnh để quay về nội dung mặc định
+    @Transactional
+    public EmailTemplateResponse resetTemplate(Long projectId, EmailTemplateType type) {
+        emailTemplateRepository.findByProjectIdAndType(projectId, type).ifPresent(template -> {
+            emailTemplateRepository.delete(template);
+            eventPublisher.publishEvent(new EmailTemplateChangedEvent(projectId));
+        });
+        return defaultResponse(type);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTemplateChanged(EmailTemplateChangedEvent event) {
+        cache.invalidate(event.projectId());
+    }
+
+    private Compiled[] load(Long projectId) {
+        Compiled[] templates = DEFAULTS.clone();
+        for (EmailTemplate template : emailTemplateRepository.findByProjectId(projectId)) {
+            try {
+                templates[template.getType().ordinal()] = compile(template.getType(), template.getSubject(), template.getHtmlBody(), template.getTextBody());
+            } catch (IllegalArgumentException e) {
+                // Template lưu từ trước khi danh sách biến thay đổi: gửi bằng mặc định thay vì làm hỏng luồng đăng ký
+                log.warn("Email template {} of project {} is invalid, using default: {}", template.getType(), projectId, e.getMessage());
+            }
+        }
+        return templates;
+    }
+
+    private static Compiled compileDefault(EmailTemplateType type) {
+        return compile(type, type.getDefaultSubject(), type.getDefaultHtmlBody(), type.getDefaultTextBody());
+    }
+
+    private static Compiled compile(EmailTemplateType type, String subject, String htmlBody, String textBody) {
+        List<String> variables = type.getVariables();
+        return new Compiled(
+                CompiledTemplate.compile(subject, variables),
+                CompiledTemplate.compile(htmlBody, variables),
+                textBody == null ? null : CompiledTemplate.compile(textBody, variables)
+        );
+    }
+
+    private EmailTemplateResponse mapToResponse(EmailTemplate template) {
+        return EmailTemplateResponse.builder()
+                .type(template.getType())
+                .subject(template.getSubject())
+                .htmlBody(template.getHtmlBody())
+                .textBody(template.getTextBody())
+                .variables(template.getType().getVariables())
+                .customized(true)
+                .updatedAt(template.getUpdatedAt())
+                .build();
+    }
+
+    private EmailTemplateResponse defaultResponse(EmailTemplateType type) {
+        return EmailTemplateResponse.builder()
+                .type(type)
+                .subject(type.getDefaultSubject())
+                .htmlBody(type.getDefaultHtmlBody())
+                .textBody(type.getDefaultTextBody())
+                .variables(type.getVariables())
+                .customized(false)
+                .build();
+    }
+
+    private record Compiled(CompiledTemplate subject, CompiledTemplate htmlBody, CompiledTemplate textBody) {
+
+        RenderedEmail render(String[] values) {
+            return new RenderedEmail(
+                    subject.render(values),
+                    htmlBody.renderHtml(values),
+                    textBody == null ? null : textBody.render(values)
+            );
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.BulkEndUserRequest;
+import com.authplatform.authservice.dto.BulkEndUserRolesRequest;
+import com.authplatform.authservice.dto.BulkOperationResponse;
+import com.authplatform.authservice.dto.EndUserFilter;
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.authplatform.authservice.event.TokenGenerationsChangedEvent;
+import com.authplatform.authservice.exception.InvalidBulkRequestException;
+import com.authplatform.authservice.security.TokenGenerationChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Gán/gỡ role và khóa/mở khóa End-User hàng loạt bằng vài câu SQL dạng tập hợp (INSERT ... SELECT, DELETE ... USING,
+ * UPDATE), không load từng entity. Sau khi commit, cache principal của cả project bị xóa bằng một event;
+ * khóa tài khoản còn tăng thế hệ token của từng user như thao tác khóa đơn lẻ.
+ * Khóa chạy theo lô `app.endusers.bulk.lock-batch-size` dòng, mỗi lô một transaction ngắn và ghi mốc thay đổi
+ * bằng đồng hồ DB, để replica khác poll thấy thế hệ mới (lô bị lỗi giữa chừng thì các lô trước vẫn đã khóa).
+ */
+@Service
+public class EndUserBulkService {
+
+    private static final String COUNT_PROJECT_ROLES_SQL =
+            "SELECT count(*) FROM project_roles WHERE project_id = :projectId AND id IN (:roleIds)";
+
+    private static final String ADD_ROLES_SQL = """
+            INSERT INTO enduser_roles (enduser_id, role_id)
+            SELECT u.id, r.id
+              FROM end_users u JOIN project_roles r ON r.id IN (:roleIds)
+             WHERE %s
+               AND NOT EXISTS (SELECT 1 FROM enduser_roles e WHERE e.enduser_id = u.id AND e.role_id = r.id)
+            """;
+
+    // Giống thao tác gỡ đơn lẻ: user chỉ còn lại các role bị gỡ sẽ được bỏ qua để không ai bị mất hết role
+    private static final String REMOVE_ROLES_SQL = """
+            DELETE FROM enduser_roles er
+             USING end_users u
+             WHERE er.enduser_id = u.id
+               AND er.role_id IN (:roleIds)
+               AND %s
+               AND EXISTS (SELECT 1 FROM enduser_roles kept WHERE kept.enduser_id = u.id AND kept.role_id NOT IN (:roleIds))
+            """;
+
+    // clock_timestamp() lấy lúc ghi (không phải lúc bắt đầu transaction), lô commit ngay sau đó nên nằm trong poll-overlap
+    private static final String LOCK_BATCH_SQL = """
+            UPDATE end_users u
+               SET locked = true, token_generation = u.token_generation + 1, token_generation_changed_at = clock_timestamp()
+             WHERE u.locked = false
+               AND u.id IN (SELECT u.id FROM end_users u WHERE %s AND u.locked = false ORDER BY u.id LIMIT :batchSize)
+            RETURNING u.id, u.token_generation
+            """;
+
+    private static final String UNLOCK_SQL = "UPDATE end_users u SET locked = false WHERE %s AND u.locked = true";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int lockBatchSize;
+
+    public EndUserBulkService(
+            NamedParameterJdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.endusers.bulk.lock-batch-size:1000}") int lockBatchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lockBatchSize = lockBatchSize;
+    }
+
+    @Transactional
+    public BulkOperationResponse addRoles(Long projectId, BulkEndUserRolesRequest request) {
+        MapSqlParameterSource params = selection(projectId, request);
+        verifyProjectRoles(params, request);
+        return changed(projectId, jdbcTemplate.update(ADD_ROLES_SQL.formatted(where(params)), params));
+    }
+
+    @Transactional
+    public BulkOperationResponse removeRoles(Long projectId, BulkEndUserRolesRequest request) {
+        MapSqlParameterSource params = selection(projectId, request);
+        verifyProjectRoles(params, request);
+        return changed(projectId, jdbcTemplate.update(REMOVE_ROLES_SQL.formatted(where(params)), params));
+    }
+
+    public BulkOperationResponse lock(Long projectId, BulkEndUserRequest request) {
+        MapSqlParameterSource params = selection(projectId, request).addValue("batchSize", lockBatchSize);
+        String sql = LOCK_BATCH_SQL.formatted(where(params));
+        long locked = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> lockBatch(projectId, sql, params));
+            locked += batch;
+        } while (batch == lockBatchSize);
+        return new BulkOperationResponse(locked);
+    }
+
+    private int lockBatch(Long projectId, String sql, MapSqlParameterSource params) {
+        List<TokenGenerationChange> changes = jdbcTemplate.query(sql, params,
+                (rs, rowNum) -> new TokenGenerationChange(rs.getLong(1), projectId, rs.getInt(2)));
+        if (!changes.isEmpty()) {
+            // Token đã phát cho các user bị khóa bị từ chối ngay trên instance này; instance khác nhận qua poll
+            eventPublisher.publishEvent(new TokenGenerationsChangedEvent(changes));
+            eventPublisher.publishEvent(PrincipalChangedEvent.project(projectId));
+        }
+        return changes.size();
+    }
+
+    @Transactional
+    public BulkOperationResponse unlock(Long projectId, BulkEndUserRequest request) {
+        MapSqlParameterSource params = selection(projectId, request);
+        return changed(projectId, jdbcTemplate.update(UNLOCK_SQL.formatted(where(params)), params));
+    }
+
+    private BulkOperationResponse changed(Long projectId, long affected) {
+        if (affected > 0) {
+            eventPublisher.publishEvent(PrincipalChangedEvent.project(projectId));
+        }
+        return new BulkOperationResponse(affected);
+    }
+
+    private void verifyProjectRoles(MapSqlParameterSource params, BulkEndUserRolesRequest request) {
+        params.addValue("roleIds", request.getRoleIds());
+        Long found = jdbcTemplate.queryForObject(COUNT_PROJECT_ROLES_SQL, params, Long.class);
+        if (found == null || found != request.getRoleIds().size()) {
+            throw new AccessDeniedException("Cannot assign role from a different project.");
+        }
+    }
+
+    // Bắt buộc có id hoặc ít nhất một điều kiện lọc, tránh vô tình áp dụng cho toàn bộ project
+    private static MapSqlParameterSource selection(Long projectId, BulkEndUserRequest request) {
+        EndUserFilter filter = request.toFilter();
+        boolean hasIds = request.getUserIds() != null && !request.getUserIds().isEmpty();
+        if (!hasIds && filter.verified() == null && filter.locked() == null && filter.role() == null && filter.emailPrefix() == null) {
+            throw new InvalidBulkRequestException("Specify userIds or at least one filter (verified, locked, role, emailPrefix).");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("projectId", projectId);
+        if (hasIds) {
+            params.addValue("userIds", request.getUserIds());
+        }
+        if (filter.verified() != null) {
+            params.addValue("verified", filter.verified());
+        }
+        if (filter.locked() != null) {
+            params.addValue("locked", filter.locked());
+        }
+        if (filter.role() != null) {
+            // So với tên role đã lưu ở dạng chuẩn hóa, giống bộ lọc của danh sách End-User
+            params.addValue("role", ProjectRoleService.normalizeRoleName(filter.role()));
+        }
+        if (filter.emailPrefix() != null) {
+            params.addValue("emailPrefix", filter.emailPrefix()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        return params;
+    }
+
+    // Điều kiện WHERE theo đúng các tham số đã có trong selection
+    private static String where(MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder("u.project_id = :projectId");
+        if (params.hasValue("userIds")) {
+            where.append(" AND u.id IN (:userIds)");
+        }
+        if (params.hasValue("verified")) {
+            where.append(" AND u.email_verified = :verified");
+        }
+        if (params.hasValue("locked")) {
+            where.append(" AND u.locked = :locked");
+        }
+        if (params.hasValue("role")) {
+            where.append(" AND EXISTS (SELECT 1 FROM enduser_roles fr JOIN project_roles fp ON fp.id = fr.role_id"
+                    + " WHERE fr.enduser_id = u.id AND fp.name = :role)");
+        }
+        if (params.hasValue("emailPrefix")) {
+            where.append(" AND u.email LIKE :emailPrefix ESCAPE '\\'");
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.EndUserResponse;
+import com.authplatform.authservice.dto.EndUserSort;
+import com.authplatform.authservice.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor phân trang keyset của danh sách End-User: khóa sắp xếp của bản ghi cuối (`i:<id>` hoặc `e:<email>`),
+ * mã hóa Base64 URL-safe.
+ */
+final class EndUserCursor {
+
+    private EndUserCursor() {
+    }
+
+    static String encode(EndUserResponse last, EndUserSort sort) {
+        String key = sort.byEmail() ? "e:" + last.getEmail() : "i:" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Cursor phải được tạo với cùng kiểu sắp xếp, nếu không sẽ bị từ chối thay vì trả về trang sai
+    static Object decode(String cursor, EndUserSort sort) {
+        String key;
+        try {
+            key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor.");
+        }
+        if (sort.byEmail() && key.startsWith("e:")) {
+            return key.substring(2);
+        }
+        if (!sort.byEmail() && key.startsWith("i:")) {
+            try {
+                return Long.valueOf(key.substring(2));
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid cursor.");
+            }
+        }
+        throw new InvalidCursorException("Cursor does not match the requested sort order.");
+    }
+}
@@ -0,0 +1,153 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.EndUserFileFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Xuất toàn bộ End-User của một project ra NDJSON hoặc CSV, ghi thẳng từng dòng từ cursor JDBC ra response.
+ * PostgreSQL chỉ dùng cursor phía server (fetch theo lô `app.endusers.export.fetch-size`) khi autocommit tắt,
+ * nên truy vấn chạy trong một transaction read-only; bộ nhớ dùng không phụ thuộc số lượng user.
+ * Dữ liệu được sắp theo id nên export bị ngắt có thể tiếp tục bằng `afterId` = id cuối cùng đã nhận.
+ */
+@Service
+public class EndUserExportService {
+
+    private static final String EXPORT_SQL = """
+            SELECT u.id, u.email, u.full_name, u.email_verified, u.locked,
+                   (SELECT array_agg(r.name ORDER BY r.name)
+                      FROM enduser_roles ur JOIN project_roles r ON r.id = ur.role_id
+                     WHERE ur.enduser_id = u.id) AS roles
+              FROM end_users u
+             WHERE u.project_id = ? AND u.id > ?
+             ORDER BY u.id
+            """;
+
+    private static final String CSV_HEADER = "id,email,fullName,emailVerified,locked,roles\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public EndUserExportService(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            @Value("${app.endusers.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(Long projectId, EndUserFileFormat format, Long afterId, OutputStream out) throws IOException {
+        long after = afterId != null ? afterId : 0L;
+        try {
+            if (format == EndUserFileFormat.NDJSON) {
+                writeNdjson(projectId, after, out);
+            } else {
+                writeCsv(projectId, after, out);
+            }
+        } catch (UncheckedIOException e) {
+            // Client ngắt kết nối giữa chừng: truy vấn dừng lại và transaction được đóng
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(Long projectId, long afterId, OutputStream out) throws IOException {
+        // Không đóng out: stream của response do Spring quản lý
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.setRootValueSeparator(null);
+            stream(projectId, afterId, rs -> {
+                json.writeStartObject();
+                json.writeNumberField("id", rs.getLong("id"));
+                json.writeStringField("email", rs.getString("email"));
+                json.writeStringField("fullName", rs.getString("full_name"));
+                json.writeBooleanField("emailVerified", rs.getBoolean("email_verified"));
+                json.writeBooleanField("locked", rs.getBoolean("locked"));
+                json.writeArrayFieldStart("roles");
+                for (String role : roles(rs)) {
+                    json.writeString(role);
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            });
+        }
+    }
+
+    private void writeCsv(Long projectId, long afterId, OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write(CSV_HEADER);
+        stream(projectId, afterId, rs -> {
+            csv.write(Long.toString(rs.getLong("id")));
+            csv.write(',');
+            csv.write(csvField(rs.getString("email")));
+            csv.write(',');
+            csv.write(csvField(rs.getString("full_name")));
+            csv.write(',');
+            csv.write(Boolean.toString(rs.getBoolean("email_verified")));
+            csv.write(',');
+            csv.write(Boolean.toString(rs.getBoolean("locked")));
+            csv.write(',');
+            csv.write(csvField(String.join(",", roles(rs))));
+            csv.write('\n');
+        });
+        csv.flush();
+    }
+
+    private void stream(Long projectId, long afterId, RowWriter rowWriter) {
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, projectId, afterId));
+    }
+
+    private static String[] roles(ResultSet rs) throws SQLException {
+        Array roles = rs.getArray("roles");
+        return roles != null ? (String[]) roles.getArray() : new String[0];
+    }
+
+    // RFC 4180; giá trị bắt đầu bằng = + - @ được thêm ' phía trước để bảng tính không coi là công thức
+    private static String csvField(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        if ("=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+}
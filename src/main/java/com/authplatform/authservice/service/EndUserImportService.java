@@ -0,0 +1,411 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.EndUserFileFormat;
+import com.authplatform.authservice.dto.EndUserImportError;
+import com.authplatform.authservice.dto.EndUserImportJobResponse;
+import com.authplatform.authservice.dto.EndUserImportRow;
+import com.authplatform.authservice.exception.ImportJobNotFoundException;
+import com.authplatform.authservice.exception.TooManyRequestsException;
+import com.authplatform.authservice.model.ProjectRole;
+import com.authplatform.authservice.repository.ProjectRoleRepository;
+import com.authplatform.authservice.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Import End-User hàng loạt từ file CSV/NDJSON, chạy nền trên importExecutor và báo tiến độ qua job id.
+ * Mỗi lô `app.endusers.import.batch-size` dòng được ghi trong một transaction bằng JDBC batch; id được cấp trước
+ * từ sequence của cột identity (một truy vấn cho cả lô) để batch insert và gán role mặc định không cần đọc lại từng dòng.
+ * Hash BCrypt/Argon2 có sẵn được lưu nguyên (thêm prefix `{id}`), chỉ mật khẩu gốc mới phải băm, và băm ngay trên thread
+ * import thay vì pool băm dùng chung: số thread import đã giới hạn CPU, đăng nhập không phải xếp hàng sau cả file.
+ * Không gửi email xác thực cho user được import.
+ */
+@Slf4j
+@Service
+public class EndUserImportService {
+
+    private static final String ALLOCATE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('end_users', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_USER_SQL = """
+            INSERT INTO end_users (id, email, password, full_name, email_verified, locked, project_id, token_generation)
+            VALUES (?, ?, ?, ?, ?, false, ?, 0)
+            ON CONFLICT (email, project_id) DO NOTHING
+            """;
+
+    // Id được cấp riêng cho lô này, nên id nào tồn tại sau insert là dòng đã được ghi (không phụ thuộc số đếm của batch)
+    private static final String SELECT_INSERTED_SQL = "SELECT id FROM end_users WHERE id = ANY(?)";
+
+    private static final String INSERT_ROLES_SQL = "INSERT INTO enduser_roles (enduser_id, role_id) SELECT unnest(?), ?";
+
+    // Chỉ các biến thể BCrypt mà BCryptPasswordEncoder kiểm tra được ($2x$ là biến thể lỗi của crypt_blowfish)
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final Pattern ARGON2_HASH =
+            Pattern.compile("^\\$argon2(id|i|d)\\$(v=\\d+\\$)?m=\\d+,t=\\d+,p=\\d+\\$[A-Za-z0-9+/]+\\$[A-Za-z0-9+/]+$");
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+    private static final String ARGON2_PREFIX = "{argon2}";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProjectRoleRepository projectRoleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor importExecutor;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final Cache<String, ImportJob> jobs;
+
+    public EndUserImportService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ProjectRoleRepository projectRoleRepository,
+            PasswordEncoder passwordEncoder,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Qualifier("importExecutor") ThreadPoolTaskExecutor importExecutor,
+            @Value("${app.endusers.import.batch-size:1000}") int batchSize,
+            @Value("${app.endusers.import.max-reported-errors:1000}") int maxReportedErrors,
+            @Value("${app.endusers.import.job-retention:24h}") Duration jobRetention
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.projectRoleRepository = projectRoleRepository;
+        this.passwordEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.unbounded() : passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importExecutor = importExecutor;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.jobs = CacheBuilder.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    // File upload được chép ra file tạm vì MultipartFile bị dọn khi request kết thúc, còn job chạy nền lâu hơn
+    public EndUserImportJobResponse startImport(Long projectId, EndUserFileFormat format, MultipartFile file) throws IOException {
+        Path upload = Files.createTempFile("enduser-import-", "." + format.getFileExtension());
+        file.transferTo(upload);
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), projectId);
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job, format, upload));
+        } catch (TaskRejectedException e) {
+            jobs.invalidate(job.id);
+            Files.deleteIfExists(upload);
+            throw new TooManyRequestsException("Too many import jobs are running. Please try again later.");
+        }
+        return job.toResponse();
+    }
+
+    public EndUserImportJobResponse getJob(Long projectId, String jobId) {
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null || !job.projectId.equals(projectId)) {
+            throw new ImportJobNotFoundException("Import job not found.");
+        }
+        return job.toResponse();
+    }
+
+    private void run(ImportJob job, EndUserFileFormat format, Path upload) {
+        try (BufferedReader reader = Files.newBufferedReader(upload, StandardCharsets.UTF_8)) {
+            Long defaultRoleId = projectRoleRepository.findByNameAndProjectId("USER", job.projectId)
+                    .map(ProjectRole::getId)
+                    .orElseThrow(() -> new IllegalStateException("Default USER role not found for this project."));
+
+            Map<String, Integer> csvColumns = null;
+            List<PendingUser> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                // File xuất từ Excel thường có BOM ở đầu
+                if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                    line = line.substring(1);
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == EndUserFileFormat.CSV && csvColumns == null) {
+                    csvColumns = parseCsvHeader(line);
+                    continue;
+                }
+
+                job.processed.incrementAndGet();
+                EndUserImportRow row = null;
+                try {
+                    row = format == EndUserFileFormat.CSV
+                            ? parseCsvRow(line, csvColumns)
+                            : objectMapper.readValue(line, EndUserImportRow.class);
+                    batch.add(prepare(lineNumber, row));
+                } catch (IOException | RuntimeException e) {
+                    job.recordError(lineNumber, row != null ? row.getEmail() : null, e.getMessage(), maxReportedErrors);
+                }
+
+                if (batch.size() == batchSize) {
+                    insertBatch(job, batch, defaultRoleId);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                insertBatch(job, batch, defaultRoleId);
+            }
+            job.status = ImportStatus.COMPLETED;
+            log.info("EndUser import {} for project {} completed: {} imported, {} failed",
+                    job.id, job.projectId, job.imported.get(), job.failed.get());
+        } catch (Exception e) {
+            job.status = ImportStatus.FAILED;
+            job.recordError(0, null, "Import aborted: " + e.getMessage(), maxReportedErrors);
+            log.error("EndUser import {} for project {} failed", job.id, job.projectId, e);
+        } finally {
+            job.finishedAt = Instant.now();
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                log.warn("Failed to delete import upload {}", upload, e);
+            }
+        }
+    }
+
+    // Kiểm tra và băm mật khẩu trước khi mở transaction, để transaction của lô chỉ gồm các lệnh ghi
+    private PendingUser prepare(long lineNumber, EndUserImportRow row) {
+        Set<ConstraintViolation<EndUserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+
+        boolean hasPassword = row.getPassword() != null && !row.getPassword().isEmpty();
+        boolean hasHash = row.getPasswordHash() != null && !row.getPasswordHash().isEmpty();
+        if (hasPassword == hasHash) {
+            throw new IllegalArgumentException("Exactly one of password or passwordHash is required.");
+        }
+        String encodedPassword = hasHash ? normalizeHash(row.getPasswordHash()) : passwordEncoder.encode(row.getPassword());
+        boolean emailVerified = row.getEmailVerified() == null || row.getEmailVerified();
+        return new PendingUser(lineNumber, row.getEmail(), row.getFullName(), encodedPassword, emailVerified);
+    }
+
+    // DelegatingPasswordEncoder nhận hash dạng `{id}...`; hash BCrypt/Argon2 thô từ hệ thống khác được thêm prefix tương ứng.
+    // Hash PBKDF2/scrypt bị từ chối: tham số của chúng phụ thuộc cấu hình nơi xuất, không chắc đăng nhập được.
+    // Hash có hệ số chi phí thấp hơn cấu hình hiện tại sẽ được băm lại ở lần đăng nhập đầu tiên (upgradeEncoding)
+    static String normalizeHash(String hash) {
+        boolean bcryptPrefixed = hash.startsWith(BCRYPT_PREFIX);
+        boolean argon2Prefixed = hash.startsWith(ARGON2_PREFIX);
+        String raw = bcryptPrefixed ? hash.substring(BCRYPT_PREFIX.length())
+                : argon2Prefixed ? hash.substring(ARGON2_PREFIX.length())
+                : hash;
+        if (!argon2Prefixed && BCRYPT_HASH.matcher(raw).matches()) {
+            return BCRYPT_PREFIX + raw;
+        }
+        if (!bcryptPrefixed && ARGON2_HASH.matcher(raw).matches()) {
+            return ARGON2_PREFIX + raw;
+        }
+        throw new IllegalArgumentException("Unsupported password hash format (expected BCrypt $2a/$2b/$2y or Argon2).");
+    }
+
+    private void insertBatch(ImportJob job, List<PendingUser> batch, Long defaultRoleId) {
+        Set<Long> inserted = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(ALLOCATE_IDS_SQL, Long.class, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).id = ids.get(i);
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_USER_SQL, batch, batch.size(), (ps, user) -> {
+                ps.setLong(1, user.id);
+                ps.setString(2, user.email);
+                ps.setString(3, user.encodedPassword);
+                ps.setString(4, user.fullName);
+                ps.setBoolean(5, user.emailVerified);
+                ps.setLong(6, job.projectId);
+            });
+
+            Long[] allocated = ids.toArray(Long[]::new);
+            Set<Long> insertedIds = new HashSet<>(jdbcTemplate.query(SELECT_INSERTED_SQL,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", allocated)),
+                    (rs, rowNum) -> rs.getLong(1)));
+            if (!insertedIds.isEmpty()) {
+                Long[] userIds = insertedIds.toArray(Long[]::new);
+                jdbcTemplate.update(INSERT_ROLES_SQL, ps -> {
+                    ps.setArray(1, ps.getConnection().createArrayOf("bigint", userIds));
+                    ps.setLong(2, defaultRoleId);
+                });
+            }
+            return insertedIds;
+        });
+
+        for (PendingUser user : batch) {
+            if (inserted.contains(user.id)) {
+                job.imported.incrementAndGet();
+            } else {
+                job.recordError(user.lineNumber, user.email, "Email is already in use for this project.", maxReportedErrors);
+            }
+        }
+    }
+
+    // Package-private để test
+    static Map<String, Integer> parseCsvHeader(String line) {
+        List<String> names = parseCsvLine(line);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("email")) {
+            throw new IllegalArgumentException("CSV header must contain an email column.");
+        }
+        return columns;
+    }
+
+    static EndUserImportRow parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        EndUserImportRow row = new EndUserImportRow();
+        row.setEmail(csvValue(values, columns, "email"));
+        row.setFullName(csvValue(values, columns, "fullname"));
+        row.setPassword(csvValue(values, columns, "password"));
+        row.setPasswordHash(csvValue(values, columns, "passwordhash"));
+        String emailVerified = csvValue(values, columns, "emailverified");
+        row.setEmailVerified(emailVerified == null ? null : Boolean.parseBoolean(emailVerified.trim()));
+        return row;
+    }
+
+    private static String csvValue(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    // RFC 4180 trên một dòng (giá trị có dấu phẩy/ngoặc kép được bọc trong ""), không hỗ trợ xuống dòng trong giá trị
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted value.");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private enum ImportStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private static final class PendingUser {
+        private final long lineNumber;
+        private final String email;
+        private final String fullName;
+        private final String encodedPassword;
+        private final boolean emailVerified;
+        private long id;
+
+        private PendingUser(long lineNumber, String email, String fullName, String encodedPassword, boolean emailVerified) {
+            this.lineNumber = lineNumber;
+            this.email = email;
+            this.fullName = fullName;
+            this.encodedPassword = encodedPassword;
+            this.emailVerified = emailVerified;
+        }
+    }
+
+    // Trạng thái job được cập nhật bởi thread import và đọc bởi các request xem tiến độ
+    private static final class ImportJob {
+        private final String id;
+        private final Long projectId;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<EndUserImportError> errors = new ArrayList<>();
+        private volatile ImportStatus status = ImportStatus.RUNNING;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id, Long projectId) {
+            this.id = id;
+            this.projectId = projectId;
+        }
+
+        private void recordError(long line, String email, String message, int maxReportedErrors) {
+            if (line > 0) {
+                failed.incrementAndGet();
+            }
+            synchronized (errors) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new EndUserImportError(line, email, message));
+                }
+            }
+        }
+
+        private EndUserImportJobResponse toResponse() {
+            EndUserImportJobResponse response = new EndUserImportJobResponse();
+            response.setJobId(id);
+            response.setProjectId(projectId);
+            response.setStatus(status.name());
+            response.setProcessed(processed.get());
+            response.setImported(imported.get());
+            response.setFailed(failed.get());
+            synchronized (errors) {
+                response.setErrors(List.copyOf(errors));
+            }
+            response.setStartedAt(startedAt);
+            response.setFinishedAt(finishedAt);
+            return response;
+        }
+    }
+}
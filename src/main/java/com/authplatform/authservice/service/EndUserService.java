@@ -1,9 +1,12 @@
 package com.authplatform.authservice.service;
 
 import com.authplatform.authservice.dto.*;
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.authplatform.authservice.event.TokenGenerationChangedEvent;
 import com.authplatform.authservice.exception.EmailAlreadyExistsException;
 import com.authplatform.authservice.exception.InvalidTokenException;
 import com.authplatform.authservice.exception.ProjectNotFoundException;
+import com.authplatform.authservice.model.EmailTemplateType;
 import com.authplatform.authservice.model.EndUser;
 import com.authplatform.authservice.model.Owner;
 import com.authplatform.authservice.model.Project;
@@ -12,9 +15,15 @@ import com.authplatform.authservice.repository.EndUserRepository;
 import com.authplatform.authservice.repository.OwnerRepository;
 import com.authplatform.authservice.repository.ProjectRepository;
 import com.authplatform.authservice.repository.ProjectRoleRepository;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.authplatform.authservice.security.OtpManager;
+import com.authplatform.authservice.security.PrincipalSnapshot;
+import com.authplatform.authservice.security.ProjectCache;
+import com.authplatform.authservice.security.ProjectSnapshot;
+import com.authplatform.authservice.security.TokenGenerationRegistry;
+import com.authplatform.authservice.security.VerifiedToken;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -23,11 +32,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,24 +51,38 @@ public class EndUserService {
     private final JwtService jwtService;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TokenGenerationRegistry tokenGenerationRegistry;
+    private final RefreshTokenService refreshTokenService;
+    private final EmailTemplateService emailTemplateService;
+    private final OtpManager otpManager;
+    private final ProjectCache projectCache;
+
+    @Value("${app.endusers.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${app.endusers.page.max-size:500}")
+    private int maxPageSize;
+
+    @Value("${app.public-base-url}")
+    private String publicBaseUrl;
 
     @Transactional
     public EndUser register(String apiKey, EndUserRegisterRequest request) {
-        Project project = projectRepository.findByApiKey(apiKey)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found for the given API key."));
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
 
-        if (endUserRepository.existsByEmailAndProject(request.getEmail(), project)) {
+        if (endUserRepository.existsByEmailAndProjectId(request.getEmail(), project.id())) {
             throw new EmailAlreadyExistsException("Email is already in use for this project.");
         }
 
-        ProjectRole defaultRole = projectRoleRepository.findByNameAndProject("USER", project)
+        ProjectRole defaultRole = projectRoleRepository.findByNameAndProjectId("USER", project.id())
                 .orElseThrow(() -> new IllegalStateException("Default USER role not found for this project."));
 
         EndUser newUser = EndUser.builder()
                 .fullName(request.getFullName())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
-                .project(project)
+                .project(projectRepository.getReferenceById(project.id())) // chỉ cần khóa ngoại, không SELECT lại Project
                 .roles(Set.of(defaultRole))
                 .emailVerified(false)
                 .build();
@@ -67,25 +91,18 @@ public class EndUserService {
 
         String verificationToken = jwtService.generateEmailVerificationToken(savedUser.getEmail());
 
-        String verificationLink = String.format(
-                "http://localhost:8080/api/p/%s/auth/verify-email?token=%s",
-                apiKey,
-                verificationToken
-        );
+        String verificationLink = publicBaseUrl + "/api/p/" + apiKey + "/auth/verify-email?token=" + verificationToken;
 
-        String emailBody = "<h1>Chào mừng bạn đến với " + project.getName() + "!</h1>"
-                + "<p>Vui lòng nhấp vào link sau để xác thực tài khoản của bạn (link có hiệu lực trong 15 phút):</p>"
-                + "<a href=\"" + verificationLink + "\">Kích hoạt tài khoản</a>";
-        emailService.sendHtmlEmail(savedUser.getEmail(), "Kích hoạt tài khoản của bạn", emailBody);
+        emailService.enqueueEmail(savedUser.getEmail(), emailTemplateService.render(project.id(), EmailTemplateType.VERIFY_EMAIL,
+                project.name(), savedUser.getFullName(), verificationLink, String.valueOf(jwtService.getEmailVerificationTtl().toMinutes())));
 
         return savedUser;
     }
 
     public AuthResponse login(String apiKey, EndUserLoginRequest request) {
-        Project project = projectRepository.findByApiKey(apiKey)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found for the given API key."));
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
 
-        EndUser endUser = endUserRepository.findByEmailAndProject(request.getEmail(), project)
+        EndUser endUser = endUserRepository.findByEmailAndProjectId(request.getEmail(), project.id())
                 .orElseThrow(() -> new BadCredentialsException("Invalid email or password."));
 
         // So khớp mật khẩu
@@ -100,47 +117,62 @@ public class EndUserService {
             throw new BadCredentialsException("User account is locked.");
         }
 
-        String token = jwtService.generateEndUserLoginToken(endUser.getEmail(), project);
-        return AuthResponse.builder().accessToken(token).build();
+        // Hash lỗi thời (thuật toán cũ hoặc chi phí thấp hơn cấu hình hiện tại) được băm lại ngay khi có mật khẩu gốc;
+        // chỉ làm sau khi tài khoản được phép đăng nhập, tránh tốn thêm một lần băm và một lần ghi cho tài khoản bị khóa
+        if (passwordEncoder.upgradeEncoding(endUser.getPassword())) {
+            endUser.setPassword(passwordEncoder.encode(request.getPassword()));
+            endUserRepository.save(endUser);
+        }
+
+        String token = jwtService.generateEndUserLoginToken(endUser, project);
+        String refreshToken = refreshTokenService.issueForEndUser(endUser, project);
+        return AuthResponse.builder().accessToken(token).refreshToken(refreshToken).build();
     }
 
     @Transactional
     public void verifyEmail(String apiKey, String token) {
-        Project project = projectRepository.findByApiKey(apiKey)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found."));
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
 
-        String email = jwtService.extractUsername(token);
+        VerifiedToken verifiedToken = jwtService.parse(token);
 
-        EndUser endUser = endUserRepository.findByEmailAndProject(email, project)
+        EndUser endUser = endUserRepository.findByEmailAndProjectId(verifiedToken.subject(), project.id())
                 .orElseThrow(() -> new InvalidTokenException("User not found for this token."));
 
-        if (!jwtService.isVerificationTokenValid(token, endUser)) {
+        if (!jwtService.isVerificationTokenValid(verifiedToken, endUser)) {
             throw new InvalidTokenException("Token is invalid or expired.");
         }
 
         endUser.setEmailVerified(true);
         endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
     }
 
+    // Quyền truy cập project đã được kiểm tra ở @PreAuthorize, không cần load lại Project
     public EndUserResponse getEndUserById(Long projectId, Long endUserId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
         EndUser endUser = endUserRepository.findById(endUserId)
                 .orElseThrow(() -> new UsernameNotFoundException("EndUser not found"));
 
-        if (!endUser.getProject().getId().equals(project.getId())) {
+        if (!endUser.getProject().getId().equals(projectId)) {
             throw new AccessDeniedException("User does not belong to this project.");
         }
         return mapToEndUserResponse(endUser);
     }
 
-    public List<EndUserResponse> getUsersByProject(Long projectId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found."));
-
-        return endUserRepository.findByProject(project).stream()
-                .map(this::mapToEndUserResponse)
-                .collect(Collectors.toList());
+    // Phân trang keyset: lấy thêm một bản ghi để biết còn trang sau hay không, cursor mã hóa khóa sắp xếp của bản ghi cuối
+    @Transactional(readOnly = true)
+    public EndUserPageResponse getUsersByProject(Long projectId, EndUserFilter filter, EndUserSort sort, String cursor, Integer size) {
+        int limit = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        Object after = cursor == null || cursor.isBlank() ? null : EndUserCursor.decode(cursor, sort);
+        // Tên role được lưu ở dạng đã chuẩn hóa, nên lọc "admin" hay "Quản trị" cũng phải chuẩn hóa như khi tạo role
+        EndUserFilter normalized = filter.role() == null ? filter : filter.withRole(ProjectRoleService.normalizeRoleName(filter.role()));
+
+        List<EndUserResponse> items = endUserRepository.findPage(projectId, normalized, sort, after, limit + 1);
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items = items.subList(0, limit);
+        }
+        String nextCursor = hasMore ? EndUserCursor.encode(items.get(items.size() - 1), sort) : null;
+        return new EndUserPageResponse(items, nextCursor, hasMore);
     }
 
     // Cập nhật fullName enduser dành cho owner
@@ -169,6 +201,7 @@ public class EndUserService {
 
         endUser.setRoles(new HashSet<>(rolesToAssign));
         EndUser updatedUser = endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
 
         return mapToEndUserResponse(updatedUser);
     }
@@ -187,6 +220,7 @@ public class EndUserService {
 
         endUser.getRoles().addAll(rolesToAssign);
         EndUser updatedUser = endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
 
         return mapToEndUserResponse(updatedUser);
     }
@@ -196,7 +230,11 @@ public class EndUserService {
         EndUser endUser = findUserAndVerifyProject(endUserId, projectId);
 
         endUser.setLocked(lockStatus);
+        if (lockStatus) {
+            revokeIssuedTokens(endUser);
+        }
         endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
     }
 
     @Transactional
@@ -216,73 +254,60 @@ public class EndUserService {
 
         endUser.getRoles().remove(roleToRemove);
         endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
     }
 
-    public EndUserResponse getMyProfile(String email, String apiKey) {
-        Project project = projectRepository.findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
-        EndUser endUser = endUserRepository.findByEmailAndProject(email, project).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+    public EndUserResponse getMyProfile(PrincipalSnapshot principal) {
+        EndUser endUser = findCurrentEndUser(principal);
         return mapToEndUserResponse(endUser);
     }
 
     @Transactional
-    public EndUserResponse updateMyProfile(String email, String apiKey, UpdateMyProfileRequest request) {
-        Project project = projectRepository.findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
-        EndUser endUser = endUserRepository.findByEmailAndProject(email, project).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+    public EndUserResponse updateMyProfile(PrincipalSnapshot principal, UpdateMyProfileRequest request) {
+        EndUser endUser = findCurrentEndUser(principal);
 
         endUser.setFullName(request.getFullName());
         EndUser updatedUser = endUserRepository.save(endUser);
         return mapToEndUserResponse(endUser);
     }
 
-    private final Cache<String, String> otpCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(5, TimeUnit.MINUTES)
-            .build();
-
-    private String generateOtp() {
-        return String.format("%06d", new Random().nextInt(999999));
-    }
-
     // --- QUÊN MẬT KHẨU ---
     public void forgotPassword(String apiKey, ForgotPasswordRequest request) {
-        Project project = projectRepository.findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
-        EndUser endUser = endUserRepository.findByEmailAndProject(request.getEmail(), project).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
+        EndUser endUser = endUserRepository.findByEmailAndProjectId(request.getEmail(), project.id()).orElseThrow(() -> new UsernameNotFoundException("User not found."));
 
         if (!endUser.isEmailVerified()) {
             throw new IllegalStateException("Email has not been verified yet.");
         }
 
-        String otp = generateOtp();
-        otpCache.put(endUser.getEmail(), otp);
+        String otp = otpManager.issue(project.id(), endUser.getEmail());
 
-        String emailBody = "<h1>Yêu cầu đặt lại mật khẩu cho " + project.getName() + "</h1>"
-                + "<p>Mã OTP của bạn là: <b>" + otp + "</b></p>"
-                + "<p>Mã này sẽ hết hạn sau 5 phút.</p>";
-        emailService.sendHtmlEmail(endUser.getEmail(), "Mã OTP đặt lại mật khẩu", emailBody);
+        emailService.enqueueEmail(endUser.getEmail(), emailTemplateService.render(project.id(), EmailTemplateType.PASSWORD_RESET_OTP,
+                project.name(), endUser.getFullName(), otp, String.valueOf(otpManager.getTtl().toMinutes())));
     }
 
-    @Transactional
+    // Không rollback khi OTP sai để số lần thử đã ghi nhận vẫn được giữ
+    @Transactional(noRollbackFor = InvalidTokenException.class)
     public void resetPassword(String apiKey, ResetPasswordRequest request) {
-        Project project = projectRepository.findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
 
-        String storedOtp = otpCache.getIfPresent(request.getEmail());
-        if (storedOtp == null || !storedOtp.equals(request.getOtp())) {
+        if (!otpManager.verify(project.id(), request.getEmail(), request.getOtp())) {
             throw new InvalidTokenException("Invalid or expired OTP.");
         }
 
-        EndUser endUser = endUserRepository.findByEmailAndProject(request.getEmail(), project).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+        EndUser endUser = endUserRepository.findByEmailAndProjectId(request.getEmail(), project.id()).orElseThrow(() -> new UsernameNotFoundException("User not found."));
 
         endUser.setPassword(passwordEncoder.encode(request.getNewPassword()));
         endUser.setPasswordLastChangedAt(Instant.now());
+        revokeIssuedTokens(endUser);
         endUserRepository.save(endUser);
-
-        otpCache.invalidate(request.getEmail());
+        publishPrincipalChanged(endUser);
     }
 
 
     @Transactional
-    public void changeMyPassword(String email, String apiKey, ChangePasswordRequest request) {
-        Project project = projectRepository.findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
-        EndUser endUser = endUserRepository.findByEmailAndProject(email, project).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+    public void changeMyPassword(PrincipalSnapshot principal, ChangePasswordRequest request) {
+        EndUser endUser = findCurrentEndUser(principal);
 
         if (!passwordEncoder.matches(request.getOldPassword(), endUser.getPassword())) {
             throw new BadCredentialsException("Incorrect old password.");
@@ -290,46 +315,165 @@ public class EndUserService {
 
         endUser.setPassword(passwordEncoder.encode(request.getNewPassword()));
         endUser.setPasswordLastChangedAt(Instant.now());
+        revokeIssuedTokens(endUser);
+        endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
+    }
+
+    // Đăng xuất khỏi mọi thiết bị: thu hồi toàn bộ token đã phát hành
+    @Transactional
+    public void logoutEverywhere(PrincipalSnapshot principal) {
+        EndUser endUser = findCurrentEndUser(principal);
+
+        revokeIssuedTokens(endUser);
         endUserRepository.save(endUser);
+        publishPrincipalChanged(endUser);
     }
 
-    // Xác thực token
-    public TokenValidationResponse validateToken(String apiKey, String token) {
-        Project project = projectRepository.findByApiKey(apiKey).orElseThrow(() -> new ProjectNotFoundException("Project not found."));
+    // Xác thực token. FAST trả lời từ claim nhúng khi token còn trong cửa sổ staleness, còn lại luôn tra DB như STRICT
+    public TokenValidationResponse validateToken(String apiKey, String token, TokenValidationMode mode) {
+        if (mode == TokenValidationMode.FAST) {
+            VerifiedToken verifiedToken = parseQuietly(token);
+            if (verifiedToken != null && jwtService.canTrustEmbeddedClaims(verifiedToken)) {
+                return toValidationResponseFromClaims(apiKey, verifiedToken);
+            }
+        }
+
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
 
         try {
-            String audience = jwtService.extractAudience(token);
-            if (audience == null || !audience.equals("END_USER_PROJECT:" + project.getId())) {
-                return TokenValidationResponse.builder().valid(false).build();
+            VerifiedToken verifiedToken = jwtService.parse(token);
+            if (!isIssuedForProject(verifiedToken, project)) {
+                return invalidToken();
+            }
+
+            EndUser endUser = endUserRepository.findByEmailAndProjectId(verifiedToken.subject(), project.id()).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+            return toValidationResponse(verifiedToken, endUser);
+        } catch (Exception e) {
+            return invalidToken();
+        }
+    }
+
+    // Xác thực nhiều token của cùng một project: tra project một lần, load toàn bộ user bằng một truy vấn IN.
+    // Ở chế độ FAST, token trả lời được từ claim không cần tra DB; chỉ phần còn lại mới đi qua truy vấn IN
+    public List<TokenValidationResponse> validateTokens(String apiKey, List<String> tokens, TokenValidationMode mode) {
+        boolean fast = mode == TokenValidationMode.FAST;
+
+        List<VerifiedToken> verifiedTokens = new ArrayList<>(tokens.size());
+        boolean needsLookup = !fast;
+        for (String token : tokens) {
+            VerifiedToken verifiedToken = parseQuietly(token);
+            verifiedTokens.add(verifiedToken);
+            if (verifiedToken != null && !(fast && jwtService.canTrustEmbeddedClaims(verifiedToken))) {
+                needsLookup = true;
             }
+        }
+
+        Map<String, EndUser> usersByEmail = Map.of();
+        if (needsLookup) {
+            ProjectSnapshot project = projectCache.getByApiKey(apiKey);
+            Set<String> emails = new HashSet<>();
+            for (int i = 0; i < verifiedTokens.size(); i++) {
+                VerifiedToken verifiedToken = verifiedTokens.get(i);
+                if (verifiedToken == null || (fast && jwtService.canTrustEmbeddedClaims(verifiedToken))) {
+                    continue;
+                }
+                if (isIssuedForProject(verifiedToken, project)) {
+                    emails.add(verifiedToken.subject());
+                } else {
+                    verifiedTokens.set(i, null);
+                }
+            }
+            if (!emails.isEmpty()) {
+                usersByEmail = endUserRepository.findByProjectIdAndEmailIn(project.id(), emails).stream()
+                        .collect(Collectors.toMap(EndUser::getEmail, Function.identity()));
+            }
+        }
 
-            String email = jwtService.extractUsername(token);
-            EndUser endUser = endUserRepository.findByEmailAndProject(email, project).orElseThrow(() -> new UsernameNotFoundException("User not found."));
-
-            if (jwtService.isEndUserLoginTokenValid(token, endUser) && endUser.isEnabled() && !endUser.isLocked()) {
-                // Tính toán cấp bậc cao nhất
-                int maxLevel = endUser.getRoles().stream()
-                        .mapToInt(ProjectRole::getLevel)
-                        .max()
-                        .orElse(0);
-
-                return TokenValidationResponse.builder()
-                        .valid(true)
-                        .email(endUser.getEmail())
-                        .userId(endUser.getId())
-                        .roles(endUser.getRoles().stream().map(ProjectRole::getName).collect(Collectors.toSet()))
-                        .maxRoleLevel(maxLevel)
-                        .build();
+        List<TokenValidationResponse> results = new ArrayList<>(verifiedTokens.size());
+        for (VerifiedToken verifiedToken : verifiedTokens) {
+            if (verifiedToken == null) {
+                results.add(invalidToken());
+            } else if (fast && jwtService.canTrustEmbeddedClaims(verifiedToken)) {
+                results.add(toValidationResponseFromClaims(apiKey, verifiedToken));
+            } else {
+                EndUser endUser = usersByEmail.get(verifiedToken.subject());
+                results.add(endUser != null ? toValidationResponse(verifiedToken, endUser) : invalidToken());
             }
+        }
+        return results;
+    }
+
+    private VerifiedToken parseQuietly(String token) {
+        try {
+            return jwtService.parse(token);
         } catch (Exception e) {
-            return TokenValidationResponse.builder().valid(false).build();
+            return null;
+        }
+    }
+
+    private boolean isIssuedForProject(VerifiedToken verifiedToken, ProjectSnapshot project) {
+        return project.id().equals(verifiedToken.endUserProjectId());
+    }
+
+    private TokenValidationResponse toValidationResponse(VerifiedToken verifiedToken, EndUser endUser) {
+        if (!jwtService.isEndUserLoginTokenValid(verifiedToken, endUser) || !endUser.isEnabled() || endUser.isLocked()
+                || verifiedToken.generationOrZero() != endUser.getTokenGeneration()) {
+            return invalidToken();
+        }
+
+        // Tính toán cấp bậc cao nhất
+        int maxLevel = endUser.getRoles().stream()
+                .mapToInt(ProjectRole::getLevel)
+                .max()
+                .orElse(0);
+
+        return TokenValidationResponse.builder()
+                .valid(true)
+                .email(endUser.getEmail())
+                .userId(endUser.getId())
+                .roles(endUser.getRoles().stream().map(ProjectRole::getName).collect(Collectors.toSet()))
+                .maxRoleLevel(maxLevel)
+                .build();
+    }
+
+    // Trả lời chỉ từ claim: apiKey, project và thế hệ token (bảng trong bộ nhớ) vẫn được kiểm tra,
+    // nên khóa tài khoản/đổi mật khẩu/đăng xuất mọi nơi có hiệu lực ngay; thay đổi role thì chậm tối đa một cửa sổ staleness
+    private TokenValidationResponse toValidationResponseFromClaims(String apiKey, VerifiedToken verifiedToken) {
+        Long projectId = verifiedToken.endUserProjectId();
+        if (projectId == null || !apiKey.equals(verifiedToken.apiKey()) || verifiedToken.isExpired()
+                || !tokenGenerationRegistry.isCurrentEndUserToken(projectId, verifiedToken.userId(), verifiedToken.generationOrZero())) {
+            return invalidToken();
         }
 
+        return TokenValidationResponse.builder()
+                .valid(true)
+                .email(verifiedToken.subject())
+                .userId(verifiedToken.userId())
+                .roles(verifiedToken.roles())
+                .maxRoleLevel(verifiedToken.maxRoleLevel())
+                .build();
+    }
+
+    private TokenValidationResponse invalidToken() {
         return TokenValidationResponse.builder().valid(false).build();
     }
 
     // --- CÁC PHƯƠMNG THỨC HỖ TRỢ ---
 
+    // Load EndUser đang đăng nhập theo id trong snapshot, không cần tra project qua apiKey
+    private EndUser findCurrentEndUser(PrincipalSnapshot principal) {
+        if (!principal.isEndUser()) {
+            throw new AccessDeniedException("This endpoint is only available to end users.");
+        }
+        EndUser endUser = endUserRepository.findById(principal.id())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found."));
+        if (!endUser.getProject().getId().equals(principal.projectId())) {
+            throw new AccessDeniedException("This user does not belong to the specified project.");
+        }
+        return endUser;
+    }
+
     private EndUser findUserAndVerifyProject(Long endUserId, Long projectId) {
         EndUser endUser = endUserRepository.findById(endUserId)
                 .orElseThrow(() -> new UsernameNotFoundException("EndUser not found with id: " + endUserId));
@@ -351,6 +495,19 @@ public class EndUserService {
         }
     }
 
+    // Báo cho các cache xác thực (token, principal) rằng dữ liệu của user đã thay đổi
+    private void publishPrincipalChanged(EndUser endUser) {
+        eventPublisher.publishEvent(PrincipalChangedEvent.endUser(endUser.getProject().getId(), endUser.getEmail()));
+    }
+
+    // Tăng thế hệ token: token mang thế hệ cũ bị từ chối mà không cần tra DB ở mỗi request
+    private void revokeIssuedTokens(EndUser endUser) {
+        endUser.setTokenGeneration(endUser.getTokenGeneration() + 1);
+        endUser.setTokenGenerationChangedAt(Instant.now());
+        eventPublisher.publishEvent(new TokenGenerationChangedEvent(
+                endUser.getProject().getId(), endUser.getId(), endUser.getTokenGeneration()));
+    }
+
     private EndUserResponse mapToEndUserResponse(EndUser endUser) {
         EndUserResponse response = new EndUserResponse();
         response.setId(endUser.getId());
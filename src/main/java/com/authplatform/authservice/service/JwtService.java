@@ -2,64 +2,62 @@ package com.authplatform.authservice.service;
 
 import com.authplatform.authservice.model.EndUser;
 import com.authplatform.authservice.model.Owner;
-import com.authplatform.authservice.model.Project;
-import io.jsonwebtoken.Claims;
+import com.authplatform.authservice.model.ProjectRole;
+import com.authplatform.authservice.security.JwtKeyManager;
+import com.authplatform.authservice.security.PrincipalSnapshot;
+import com.authplatform.authservice.security.ProjectSnapshot;
+import com.authplatform.authservice.security.VerifiedToken;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JwtKeyManager keyManager;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private final long emailVerificationExpiration = 15 * 60 * 1000;
+    // Thời hạn link xác thực email, cũng được hiển thị trong nội dung email
+    @Value("${jwt.email-verification.ttl:15m}")
+    private Duration emailVerificationTtl;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claimsResolver.apply(claims);
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    // Nhúng uid, roles, lvl vào token EndUser để validate-token ở chế độ FAST không cần tra DB
+    @Value("${jwt.enduser.embed-claims:false}")
+    private boolean embedEndUserClaims;
 
-    public String extractAudience(String token) {
-        // Lấy danh sách audience từ claims
-        final Set<String> audienceSet = extractClaim(token, Claims::getAudience);
+    // Claim nhúng chỉ được tin trong khoảng này kể từ lúc phát hành (thay đổi role cần tối đa chừng ấy thời gian để có hiệu lực)
+    @Value("${jwt.enduser.fast-validation.max-staleness:5m}")
+    private Duration fastValidationMaxStaleness;
 
-        if (audienceSet == null || audienceSet.isEmpty()) {
-            return null;
-        }
+    // Parser được dựng một lần duy nhất (JwtParser là immutable, thread-safe), khóa được chọn theo header kid
+    private JwtParser jwtParser;
 
-        return audienceSet.stream().findFirst().orElse(null);
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(keyManager)
+                .build();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    /**
+     * Parse và xác minh chữ ký token đúng một lần.
+     * Ném {@link io.jsonwebtoken.JwtException} nếu token sai chữ ký, sai định dạng hoặc đã hết hạn.
+     */
+    public VerifiedToken parse(String token) {
+        return VerifiedToken.from(jwtParser.parseSignedClaims(token).getPayload());
     }
 
     // --- TẠO TOKEN ĐĂNG NHẬP ---
@@ -67,82 +65,89 @@ public class JwtService {
         Map<String, Object> claims = new HashMap<>();
         claims.put("aud", "OWNER_PLATFORM");
         claims.put("role", owner.getRole().name());
+        claims.put("gen", owner.getTokenGeneration());
 
-        return Jwts.builder()
-                .claims(claims)
-                .subject(owner.getEmail())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+        return keyManager.sign(Jwts.builder()
+                        .claims(claims)
+                        .subject(owner.getEmail())
+                        .issuedAt(new Date(System.currentTimeMillis()))
+                        .expiration(new Date(System.currentTimeMillis() + jwtExpiration)))
                 .compact();
     }
 
     // Tạo token đăng nhập cho EndUser
-    public String generateEndUserLoginToken(String username, Project project) {
+    public String generateEndUserLoginToken(EndUser endUser, ProjectSnapshot project) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("apiKey", project.getApiKey());
-
-        return Jwts.builder()
-                .claims(claims)
-                .subject(username)
-                .audience().add("END_USER_PROJECT:" + project.getId()).and()
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey())
+        claims.put("apiKey", project.apiKey());
+        claims.put("gen", endUser.getTokenGeneration());
+        if (embedEndUserClaims) {
+            claims.put("uid", endUser.getId());
+            claims.put("roles", endUser.getRoles().stream().map(ProjectRole::getName).sorted().toList());
+            claims.put("lvl", endUser.getRoles().stream().mapToInt(ProjectRole::getLevel).max().orElse(0));
+        }
+
+        return keyManager.sign(Jwts.builder()
+                        .claims(claims)
+                        .subject(endUser.getEmail())
+                        .audience().add("END_USER_PROJECT:" + project.id()).and()
+                        .issuedAt(new Date(System.currentTimeMillis()))
+                        .expiration(new Date(System.currentTimeMillis() + jwtExpiration)))
                 .compact();
     }
 
+    public Duration getEmailVerificationTtl() {
+        return emailVerificationTtl;
+    }
+
     // --- TẠO TOKEN XÁC THỰC EMAIL ---
     public String generateEmailVerificationToken(String email) {
-        return Jwts.builder()
-                .subject(email)
-                .audience().add("EMAIL_VERIFICATION").and()
-                .issuedAt(Date.from(Instant.now()))
-                .expiration(Date.from(Instant.now().plusMillis(emailVerificationExpiration)))
-                .signWith(getSigningKey())
+        return keyManager.sign(Jwts.builder()
+                        .subject(email)
+                        .audience().add("EMAIL_VERIFICATION").and()
+                        .issuedAt(Date.from(Instant.now()))
+                        .expiration(Date.from(Instant.now().plus(emailVerificationTtl))))
                 .compact();
     }
 
-    // --- CÁC HÀM XÁC THỰC TOKEN ---
+    // --- CÁC HÀM XÁC THỰC TOKEN (làm việc trên token đã parse) ---
 
     // Chỉ kiểm tra email và ngày hết hạn
-    public boolean isVerificationTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public boolean isVerificationTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return userDetails.getUsername().equals(token.subject()) && !token.isExpired();
     }
 
     /**
-     * Hàm phức tạp: Ngoài kiểm tra cơ bản, nó còn kiểm tra `passwordLastChangedAt` nếu user là `Owner`.
+     * Ngoài kiểm tra cơ bản, còn kiểm tra `passwordLastChangedAt` của `Owner`.
      * Dùng cho token ĐĂNG NHẬP của Owner.
      */
-    public boolean isOwnerLoginTokenValid(String token, UserDetails userDetails) {
-        if (!isVerificationTokenValid(token, userDetails)) {
-            return false;
-        }
+    public boolean isOwnerLoginTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return isVerificationTokenValid(token, userDetails)
+                && !token.isIssuedBefore(passwordLastChangedAt(userDetails));
+    }
 
-        if (userDetails instanceof Owner owner) {
-            final Date tokenIssuedAt = extractClaim(token, Claims::getIssuedAt);
-            final Instant passwordLastChanged = owner.getPasswordLastChangedAt();
+    public boolean isEndUserLoginTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return isVerificationTokenValid(token, userDetails)
+                && !token.isIssuedBefore(passwordLastChangedAt(userDetails));
+    }
 
-            if (passwordLastChanged != null) {
-                return !tokenIssuedAt.toInstant().isBefore(passwordLastChanged);
-            }
-        }
-        return true;
+    // Token có claim nhúng và còn nằm trong cửa sổ staleness thì có thể trả lời mà không load user
+    public boolean canTrustEmbeddedClaims(VerifiedToken token) {
+        return token.hasEmbeddedClaims()
+                && token.issuedAt() != null
+                && token.issuedAt().isAfter(Instant.now().minus(fastValidationMaxStaleness));
     }
 
-    public boolean isEndUserLoginTokenValid(String token, UserDetails userDetails) {
-        if (!isOwnerLoginTokenValid(token, userDetails)) {
-            return false;
+    // Hỗ trợ cả entity lẫn snapshot đã cache trong SecurityContext
+    private Instant passwordLastChangedAt(UserDetails userDetails) {
+        if (userDetails instanceof PrincipalSnapshot principal) {
+            return principal.passwordLastChangedAt();
+        }
+        if (userDetails instanceof Owner owner) {
+            return owner.getPasswordLastChangedAt();
         }
-
         if (userDetails instanceof EndUser endUser) {
-            final Date tokenIssuedAt = extractClaim(token, Claims::getIssuedAt);
-            final Instant passwordLastChanged = endUser.getPasswordLastChangedAt();
-            if (passwordLastChanged != null) {
-                return !tokenIssuedAt.toInstant().isBefore(passwordLastChanged);
-            }
+            return endUser.getPasswordLastChangedAt();
         }
-        return true;
+        return null;
     }
 }
@@ -1,15 +1,17 @@
 package com.authplatform.authservice.service;
 
+import com.authplatform.authservice.model.Owner;
 import com.authplatform.authservice.repository.OwnerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class OwnerDetailsService implements UserDetailsService {
+public class OwnerDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final OwnerRepository ownerRepository;
 
@@ -19,4 +21,12 @@ public class OwnerDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Owner not found with email: " + username));
     }
 
+    // DaoAuthenticationProvider gọi sau khi đăng nhập thành công nếu hash cũ cần nâng cấp (thuật toán/chi phí)
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Owner owner = ownerRepository.findByEmail(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Owner not found with email: " + user.getUsername()));
+        owner.setPassword(newPassword);
+        return ownerRepository.save(owner);
+    }
 }
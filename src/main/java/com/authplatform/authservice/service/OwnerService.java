@@ -1,20 +1,24 @@
 package com.authplatform.authservice.service;
 
 import com.authplatform.authservice.dto.*;
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import com.authplatform.authservice.event.TokenGenerationChangedEvent;
 import com.authplatform.authservice.exception.EmailAlreadyExistsException;
 import com.authplatform.authservice.exception.InvalidTokenException;
+import com.authplatform.authservice.model.EmailTemplateType;
 import com.authplatform.authservice.model.Owner;
 import com.authplatform.authservice.model.Role;
 import com.authplatform.authservice.repository.OwnerRepository;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.authplatform.authservice.security.OtpManager;
+import com.authplatform.authservice.security.OtpStore;
+import com.authplatform.authservice.security.VerifiedToken;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.time.Instant;
-import java.util.Random;
-import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -31,6 +35,15 @@ public class OwnerService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailTemplateService emailTemplateService;
+    private final OtpManager otpManager;
+
+    @Value("${app.public-base-url}")
+    private String publicBaseUrl;
+
+    @Value("${app.platform-name}")
+    private String platformName;
 
     // --- LOGIC ĐĂNG KÝ ---
     @Transactional
@@ -53,12 +66,9 @@ public class OwnerService {
         String verificationToken = jwtService.generateEmailVerificationToken(savedOwner.getEmail());
 
         // Gửi email với link trỏ về backend của chúng ta
-        String verificationLink = "http://localhost:8080/api/platform/auth/verify-email?token=" + verificationToken;
-        String emailBody = "<h1>Cảm ơn bạn đã đăng ký!</h1>"
-                + "<p>Vui lòng nhấp vào link sau để xác thực tài khoản của bạn (link có hiệu lực trong 15 phút):</p>"
-                + "<a href=\"" + verificationLink + "\">Xác thực tài khoản</a>";
-
-        emailService.sendHtmlEmail(savedOwner.getEmail(), "Xác thực tài khoản", emailBody);
+        String verificationLink = publicBaseUrl + "/api/platform/auth/verify-email?token=" + verificationToken;
+        emailService.enqueueEmail(savedOwner.getEmail(), emailTemplateService.render(null, EmailTemplateType.VERIFY_EMAIL,
+                platformName, savedOwner.getFullName(), verificationLink, String.valueOf(jwtService.getEmailVerificationTtl().toMinutes())));
 
         // Trả về thông tin cơ bản, không có token đăng nhập
         return mapToOwnerResponse(savedOwner);
@@ -67,27 +77,18 @@ public class OwnerService {
     // --- LOGIC XÁC THỰC EMAIL ---
     @Transactional
     public void verifyEmail(String token) {
-        String email = jwtService.extractUsername(token);
+        VerifiedToken verifiedToken = jwtService.parse(token);
 
-        Owner owner = ownerRepository.findByEmail(email)
+        Owner owner = ownerRepository.findByEmail(verifiedToken.subject())
                 .orElseThrow(() -> new InvalidTokenException("User not found for this token."));
 
-        if (!jwtService.isVerificationTokenValid(token, owner)) {
+        if (!jwtService.isVerificationTokenValid(verifiedToken, owner)) {
             throw new InvalidTokenException("Token is invalid or expired.");
         }
 
         owner.setEmailVerified(true);
         ownerRepository.save(owner);
-    }
-
-    // Tạo một cache để lưu OTP
-    private final Cache<String, String> otpCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(5, TimeUnit.MINUTES)
-            .build();
-
-    // Hàm khởi tảo mã OTP 6 số ngẫu nhiên
-    private String generateOtp() {
-        return String.format("%06d", new Random().nextInt(999999));
+        eventPublisher.publishEvent(PrincipalChangedEvent.owner(owner.getEmail()));
     }
 
     // Xử lý yêu cầu quên mật khẩu
@@ -99,21 +100,16 @@ public class OwnerService {
             throw new IllegalStateException("Email has not been verified yet.");
         }
 
-        String otp = generateOtp();
-        otpCache.put(email, otp);
+        String otp = otpManager.issue(OtpStore.PLATFORM_SCOPE, email);
 
-        String emailBody = "<h1>Yêu cầu đặt lại mật khẩu</h1>"
-                        + "<p>Mã OTP của bạn là: <b>" + otp + "</b></p>"
-                        + "<p>Mã này sẽ hết hạn sau 5 phút. Vui lòng không chia sẻ mã này cho bất kỳ ai.</p>";
-        emailService.sendHtmlEmail(email, "Mã OTP đặt lại mật khẩu", emailBody);
+        emailService.enqueueEmail(email, emailTemplateService.render(null, EmailTemplateType.PASSWORD_RESET_OTP,
+                platformName, owner.getFullName(), otp, String.valueOf(otpManager.getTtl().toMinutes())));
     }
 
-    // Xử lý đặt lại mật khẩu mới
-    @Transactional
+    // Xử lý đặt lại mật khẩu mới; không rollback khi OTP sai để số lần thử đã ghi nhận vẫn được giữ
+    @Transactional(noRollbackFor = InvalidTokenException.class)
     public void resetPassword(ResetPasswordRequest request) {
-        String storedOtp = otpCache.getIfPresent(request.getEmail());
-
-        if (storedOtp == null || !storedOtp.equals(request.getOtp())) {
+        if (!otpManager.verify(OtpStore.PLATFORM_SCOPE, request.getEmail(), request.getOtp())) {
             throw new InvalidTokenException("Invalid or expired OTP.");
         }
 
@@ -122,9 +118,9 @@ public class OwnerService {
 
         owner.setPassword(passwordEncoder.encode(request.getNewPassword()));
         owner.setPasswordLastChangedAt(Instant.now());
+        revokeIssuedTokens(owner);
         ownerRepository.save(owner);
-
-        otpCache.invalidate(request.getEmail());
+        eventPublisher.publishEvent(PrincipalChangedEvent.owner(owner.getEmail()));
     }
 
     // Lấy tất cả Owner
@@ -157,7 +153,9 @@ public class OwnerService {
         // Cập nhật mật khẩu mới và timestamp
         owner.setPassword(passwordEncoder.encode(request.getNewPassword()));
         owner.setPasswordLastChangedAt(Instant.now());
+        revokeIssuedTokens(owner);
         ownerRepository.save(owner);
+        eventPublisher.publishEvent(PrincipalChangedEvent.owner(owner.getEmail()));
     }
 
     // Owner Admin cập nhật role của owner
@@ -174,6 +172,7 @@ public class OwnerService {
             Role newRole = Role.valueOf(request.getRole()); // Chuyển String thành Enum
             targetOwner.setRole(newRole);
             ownerRepository.save(targetOwner);
+            eventPublisher.publishEvent(PrincipalChangedEvent.owner(targetOwner.getEmail()));
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Invalid role provided. Must be ROLE_USER or ROLE_ADMIN.");
         }
@@ -198,7 +197,29 @@ public class OwnerService {
                 .orElseThrow(() -> new UsernameNotFoundException("Owner not found"));
 
         owner.setLocked(shouldBeLocked);
+        if (shouldBeLocked) {
+            revokeIssuedTokens(owner);
+        }
+        ownerRepository.save(owner);
+        eventPublisher.publishEvent(PrincipalChangedEvent.owner(owner.getEmail()));
+    }
+
+    // Owner đăng xuất khỏi mọi thiết bị: thu hồi toàn bộ token đã phát hành
+    @Transactional
+    public void logoutEverywhere(String ownerEmail) {
+        Owner owner = ownerRepository.findByEmail(ownerEmail)
+                .orElseThrow(() -> new UsernameNotFoundException("Owner not found"));
+
+        revokeIssuedTokens(owner);
         ownerRepository.save(owner);
+        eventPublisher.publishEvent(PrincipalChangedEvent.owner(owner.getEmail()));
+    }
+
+    // Tăng thế hệ token: token mang thế hệ cũ bị từ chối mà không cần tra DB ở mỗi request
+    private void revokeIssuedTokens(Owner owner) {
+        owner.setTokenGeneration(owner.getTokenGeneration() + 1);
+        owner.setTokenGenerationChangedAt(Instant.now());
+        eventPublisher.publishEvent(new TokenGenerationChangedEvent(null, owner.getId(), owner.getTokenGeneration()));
     }
 
     // Hàm chuyển đổi Entity sang DTO
@@ -1,9 +1,7 @@
 package com.authplatform.authservice.service;
 
-import com.authplatform.authservice.model.EndUser;
-import com.authplatform.authservice.model.Owner;
-import com.authplatform.authservice.model.ProjectRole;
-import com.authplatform.authservice.repository.ProjectRepository;
+import com.authplatform.authservice.security.PrincipalSnapshot;
+import com.authplatform.authservice.security.ProjectOwnershipIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -12,7 +10,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class PermissionService {
 
-    private final ProjectRepository projectRepository;
+    private final ProjectOwnershipIndex projectOwnershipIndex;
 
     private static final int MANAGEMENT_LEVEL = 500;
 
@@ -21,34 +19,18 @@ public class PermissionService {
             return false;
         }
 
-        Object principal = authentication.getPrincipal();
-
-        // Trường hợp 1: Người dùng là Owner
-        if (principal instanceof Owner owner) {
-            // Kiểm tra xem project có thuộc sở hữu của owner này không
-            return projectRepository.findById(projectId)
-                    .map(project -> project.getOwner().getId().equals(owner.getId()))
-                    .orElse(false);
+        if (!(authentication.getPrincipal() instanceof PrincipalSnapshot principal)) {
+            return false;
         }
 
-        // Trường hợp 2: Người dùng là EndUser
-        if (principal instanceof EndUser endUser) {
-            // 1. Kiểm tra xem user có thuộc project này không
-            boolean isUserInProject = endUser.getProject().getId().equals(projectId);
-            if (!isUserInProject) {
-                return false;
-            }
-
-            // 2. Kiểm tra xem user có level trên 100 không
-            int maxLevel = endUser.getRoles().stream()
-                    .mapToInt(ProjectRole::getLevel)
-                    .max()
-                    .orElse(0);
-
-            return maxLevel >= MANAGEMENT_LEVEL;
+        // Trường hợp 1: Người dùng là Owner
+        if (principal.isOwner()) {
+            // Kiểm tra xem project có thuộc sở hữu của owner này không (tra trong bộ nhớ, không query DB)
+            return projectId != null && projectOwnershipIndex.isOwner(principal.id(), projectId);
         }
 
-        return false;
+        // Trường hợp 2: Người dùng là EndUser thuộc project này và có level quản lý (đã tính sẵn trong snapshot)
+        return projectId.equals(principal.projectId()) && principal.maxRoleLevel() >= MANAGEMENT_LEVEL;
     }
 
 }
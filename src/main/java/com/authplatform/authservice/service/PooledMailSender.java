@@ -0,0 +1,184 @@
+package com.authplatform.authservice.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Gửi nhiều MimeMessage trên một kết nối SMTP đã xác thực thay vì mở kết nối (và bắt tay STARTTLS) cho mỗi thư.
+ * Giữ tối đa `app.email.smtp.pool-size` kết nối; kết nối được đóng khi đã gửi đủ
+ * `max-messages-per-connection` thư, nhàn rỗi quá `idle-timeout` hoặc gặp lỗi ở tầng kết nối.
+ * Tốc độ gửi toàn cục được giới hạn theo `app.email.smtp.rate-limit` (thư/giây) để không vượt hạn mức của nhà cung cấp.
+ */
+@Slf4j
+@Component
+public class PooledMailSender implements DisposableBean {
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutNanos;
+    private final RateLimiter rateLimiter;
+    private final Semaphore slots;
+    private final BlockingQueue<PooledTransport> idle = new LinkedBlockingQueue<>();
+    private final Counter connectionsOpened;
+
+    public PooledMailSender(
+            JavaMailSenderImpl mailSender,
+            @Value("${app.email.smtp.pool-size:2}") int poolSize,
+            @Value("${app.email.smtp.max-messages-per-connection:50}") int maxMessagesPerConnection,
+            @Value("${app.email.smtp.idle-timeout:30s}") Duration idleTimeout,
+            @Value("${app.email.smtp.rate-limit:10}") double messagesPerSecond,
+            MeterRegistry meterRegistry
+    ) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.rateLimiter = messagesPerSecond > 0 ? RateLimiter.create(messagesPerSecond) : null; // 0 = không giới hạn
+        this.slots = new Semaphore(poolSize);
+        this.connectionsOpened = Counter.builder("auth.email.smtp.connections.opened").register(meterRegistry);
+    }
+
+    public MimeMessage createMimeMessage() {
+        return mailSender.createMimeMessage();
+    }
+
+    /**
+     * Gửi lần lượt các thư trên một kết nối mượn từ pool.
+     * Trả về các thư gửi lỗi kèm ngoại lệ; thư không có trong map là đã gửi thành công.
+     */
+    public Map<MimeMessage, Exception> send(List<MimeMessage> messages) throws InterruptedException {
+        Map<MimeMessage, Exception> failures = new IdentityHashMap<>();
+        slots.acquire();
+        PooledTransport transport = null;
+        try {
+            for (MimeMessage message : messages) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                try {
+                    if (transport != null && transport.isExhausted()) {
+                        discard(transport);
+                        transport = null;
+                    }
+                    if (transport == null) {
+                        transport = borrow();
+                    }
+                    message.saveChanges();
+                    transport.send(message);
+                } catch (SendFailedException e) {
+                    // Người nhận bị từ chối, kết nối vẫn dùng được
+                    failures.put(message, e);
+                } catch (MessagingException | RuntimeException e) {
+                    failures.put(message, e);
+                    discard(transport);
+                    transport = null;
+                }
+            }
+        } finally {
+            release(transport);
+            slots.release();
+        }
+        return failures;
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            transport.close();
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            if (transport.isReusable()) {
+                return transport;
+            }
+            transport.close();
+        }
+        return open();
+    }
+
+    private void release(PooledTransport transport) {
+        if (transport == null) {
+            return;
+        }
+        if (!transport.isExhausted()) {
+            idle.offer(transport);
+        } else {
+            transport.close();
+        }
+    }
+
+    private void discard(PooledTransport transport) {
+        if (transport != null) {
+            transport.close();
+        }
+    }
+
+    // Kết nối giống JavaMailSenderImpl.connectTransport, nhưng giữ lại Transport để dùng tiếp
+    private PooledTransport open() throws MessagingException {
+        String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : JavaMailSenderImpl.DEFAULT_PROTOCOL;
+        Transport transport = mailSender.getSession().getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        connectionsOpened.increment();
+        log.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return new PooledTransport(transport);
+    }
+
+    private final class PooledTransport {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsedNanos = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            sent++;
+            lastUsedNanos = System.nanoTime();
+            transport.sendMessage(message, message.getAllRecipients());
+        }
+
+        // Nhà cung cấp thường giới hạn số thư trên một phiên SMTP
+        private boolean isExhausted() {
+            return sent >= maxMessagesPerConnection;
+        }
+
+        // Máy chủ SMTP thường tự đóng kết nối nhàn rỗi, nên không dùng lại kết nối đã nằm chờ quá lâu;
+        // isConnected() gửi NOOP nên chỉ kiểm tra khi mượn lại từ pool
+        private boolean isReusable() {
+            return !isExhausted()
+                    && System.nanoTime() - lastUsedNanos < idleTimeoutNanos
+                    && transport.isConnected();
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Failed to close SMTP connection cleanly", e);
+            }
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.authplatform.authservice.service;
 
 import com.authplatform.authservice.dto.ProjectRoleRequest;
 import com.authplatform.authservice.dto.ProjectRoleResponse;
-import com.authplatform.authservice.exception.ProjectNotFoundException;
+import com.authplatform.authservice.event.PrincipalChangedEvent;
 import com.authplatform.authservice.model.Owner;
 import com.authplatform.authservice.model.Project;
 import com.authplatform.authservice.model.ProjectRole;
@@ -11,6 +11,7 @@ import com.authplatform.authservice.repository.OwnerRepository;
 import com.authplatform.authservice.repository.ProjectRepository;
 import com.authplatform.authservice.repository.ProjectRoleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -25,15 +26,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProjectRoleService {
 
+    // Biên dịch regex một lần thay vì mỗi lần tạo/cập nhật role
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final ProjectRoleRepository projectRoleRepository;
     private final ProjectRepository projectRepository;
     private final EndUserRepository endUserRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Tạo role
     @Transactional
     public ProjectRoleResponse createRole(Long projectId, ProjectRoleRequest request) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
+        // Quyền đã được kiểm tra ở @PreAuthorize, chỉ cần tham chiếu để ghi khóa ngoại
+        Project project = projectRepository.getReferenceById(projectId);
 
         String normalizedName = normalizeRoleName(request.getName());
 
@@ -53,9 +59,7 @@ public class ProjectRoleService {
 
     // Lấy tất cả role
     public List<ProjectRoleResponse> getRolesByProject(Long projectId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
-        return projectRoleRepository.findByProject(project).stream()
+        return projectRoleRepository.findByProjectId(projectId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
@@ -75,6 +79,7 @@ public class ProjectRoleService {
         role.setLevel(request.getLevel());
 
         ProjectRole savedRole = projectRoleRepository.save(role);
+        eventPublisher.publishEvent(PrincipalChangedEvent.project(projectId));
         return mapToResponse(savedRole);
     }
 
@@ -106,14 +111,14 @@ public class ProjectRoleService {
         return role;
     }
 
-    private String normalizeRoleName(String name) {
+    // Package-private để benchmark JMH gọi trực tiếp
+    static String normalizeRoleName(String name) {
         // Loại bỏ dấu Tiếng Việt
         String normalized = Normalizer.normalize(name, Normalizer.Form.NFD);
-        Pattern pattern = Pattern.compile("\\p{M}");
-        normalized = pattern.matcher(normalized).replaceAll("");
+        normalized = COMBINING_MARKS.matcher(normalized).replaceAll("");
 
         // Thay thế khoảng trắng bằng gạch dưới và chuyền thành IN HOA
-        return normalized.trim().replaceAll("\\s+","_").toUpperCase();
+        return WHITESPACE.matcher(normalized.trim()).replaceAll("_").toUpperCase();
     }
 
     private ProjectRoleResponse mapToResponse(ProjectRole role) {
@@ -3,6 +3,7 @@ package com.authplatform.authservice.service;
 import com.authplatform.authservice.dto.CreateProjectRequest;
 import com.authplatform.authservice.dto.ProjectResponse;
 import com.authplatform.authservice.dto.UpdateProjectRequest;
+import com.authplatform.authservice.event.ProjectChangedEvent;
 import com.authplatform.authservice.exception.ProjectNotFoundException;
 import com.authplatform.authservice.model.Owner;
 import com.authplatform.authservice.model.Project;
@@ -10,8 +11,10 @@ import com.authplatform.authservice.model.ProjectRole;
 import com.authplatform.authservice.repository.OwnerRepository;
 import com.authplatform.authservice.repository.ProjectRepository;
 import com.authplatform.authservice.repository.ProjectRoleRepository;
+import com.authplatform.authservice.security.ProjectCache;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -32,11 +35,13 @@ public class ProjectService {
     private final OwnerRepository ownerRepository;
     private final ProjectRoleRepository projectRoleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ProjectCache projectCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Long getProjectIdByApiKey(String apiKey) {
-        Project project = projectRepository.findByApiKey(apiKey)
-                .orElseThrow(() -> new ProjectNotFoundException("Project not found with the given API key."));
-        return project.getId();
+        return projectCache.findByApiKey(apiKey)
+                .orElseThrow(() -> new ProjectNotFoundException("Project not found with the given API key."))
+                .id();
     }
 
     @Transactional
@@ -56,6 +61,7 @@ public class ProjectService {
         ProjectRole adminRole = ProjectRole.builder().name("ADMIN").project(savedProject).level(1000).build();
         ProjectRole userRole = ProjectRole.builder().name("USER").project(savedProject).level(10).build();
         projectRoleRepository.saveAll(Arrays.asList(userRole, adminRole));
+        eventPublisher.publishEvent(new ProjectChangedEvent(savedProject.getId(), owner.getId(), savedProject.getApiKey()));
 
         return mapToProjectResponse(newProject);
     }
@@ -74,7 +80,11 @@ public class ProjectService {
 
         project.setName(request.getName());
         project.setAllowedOrigins(request.getAllowedOrigins() != null ? request.getAllowedOrigins() : new ArrayList<>());
+        project.setRefreshTokenTtlSeconds(request.getRefreshTokenTtlSeconds());
+        project.setLoginAttemptLimit(request.getLoginAttemptLimit());
+        project.setLoginAttemptWindowSeconds(request.getLoginAttemptWindowSeconds());
         Project updatedProject = projectRepository.save(project);
+        eventPublisher.publishEvent(new ProjectChangedEvent(updatedProject.getId(), owner.getId(), updatedProject.getApiKey()));
         return mapToProjectResponse(updatedProject);
     }
 
@@ -107,6 +117,9 @@ public class ProjectService {
         response.setName(project.getName());
         response.setApiKey(project.getApiKey());
         response.setAllowedOrigins(project.getAllowedOrigins());
+        response.setRefreshTokenTtlSeconds(project.getRefreshTokenTtlSeconds());
+        response.setLoginAttemptLimit(project.getLoginAttemptLimit());
+        response.setLoginAttemptWindowSeconds(project.getLoginAttemptWindowSeconds());
         return response;
     }
 
@@ -0,0 +1,150 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.AuthResponse;
+import com.authplatform.authservice.exception.InvalidRefreshTokenException;
+import com.authplatform.authservice.model.EndUser;
+import com.authplatform.authservice.model.Owner;
+import com.authplatform.authservice.model.RefreshToken;
+import com.authplatform.authservice.repository.RefreshTokenRepository;
+import com.authplatform.authservice.security.ProjectCache;
+import com.authplatform.authservice.security.ProjectSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Phát hành và xoay vòng refresh token.
+ * Refresh chỉ cần một lần tra hash + một câu UPDATE, không chạy BCrypt như đăng nhập.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final ProjectCache projectCache;
+    private final JwtService jwtService;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${jwt.refresh.ttl:30d}")
+    private Duration defaultTtl;
+
+    @Transactional
+    public String issueForOwner(Owner owner) {
+        return issue(RefreshToken.builder().owner(owner), owner.getTokenGeneration(), defaultTtl, newFamilyId());
+    }
+
+    @Transactional
+    public String issueForEndUser(EndUser endUser, ProjectSnapshot project) {
+        return issue(RefreshToken.builder().endUser(endUser), endUser.getTokenGeneration(), ttlOf(project), newFamilyId());
+    }
+
+    // Giữ lại việc thu hồi family khi phát hiện dùng lại token, dù request kết thúc bằng lỗi
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse refreshOwner(String rawToken) {
+        RefreshToken current = consume(rawToken, token -> token.getOwner() != null);
+        Owner owner = current.getOwner();
+        ensureStillValid(current, owner, owner.getTokenGeneration());
+
+        String accessToken = jwtService.generateOwnerLoginToken(owner);
+        String refreshToken = issue(RefreshToken.builder().owner(owner), owner.getTokenGeneration(), defaultTtl, current.getFamilyId());
+        return AuthResponse.builder().accessToken(accessToken).refreshToken(refreshToken).build();
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public AuthResponse refreshEndUser(String apiKey, String rawToken) {
+        ProjectSnapshot project = projectCache.getByApiKey(apiKey);
+
+        RefreshToken current = consume(rawToken, token -> token.getEndUser() != null
+                && token.getEndUser().getProject().getId().equals(project.id()));
+        EndUser endUser = current.getEndUser();
+        ensureStillValid(current, endUser, endUser.getTokenGeneration());
+
+        String accessToken = jwtService.generateEndUserLoginToken(endUser, project);
+        String refreshToken = issue(RefreshToken.builder().endUser(endUser), endUser.getTokenGeneration(), ttlOf(project), current.getFamilyId());
+        return AuthResponse.builder().accessToken(accessToken).refreshToken(refreshToken).build();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.cleanup-interval:1h}")
+    public void deleteExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+    }
+
+    // Tìm token theo hash và đánh dấu đã dùng; token đã dùng mà bị gửi lại nghĩa là đã lộ, thu hồi cả family
+    private RefreshToken consume(String rawToken, Predicate<RefreshToken> belongsToCaller) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .filter(belongsToCaller)
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token."));
+
+        if (token.getRevokedAt() != null || token.getExpiresAt().isBefore(Instant.now())) {
+            throw new InvalidRefreshTokenException("Refresh token has expired or been revoked.");
+        }
+        if (token.getUsedAt() != null || refreshTokenRepository.markUsed(token.getId(), Instant.now()) == 0) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now());
+            log.warn("Refresh token reuse detected, revoked family {}", token.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used.");
+        }
+        return token;
+    }
+
+    // Khóa tài khoản, đổi mật khẩu hoặc đăng xuất mọi nơi (tăng thế hệ token) cũng vô hiệu hóa refresh token
+    private void ensureStillValid(RefreshToken token, UserDetails user, int currentGeneration) {
+        if (!user.isEnabled() || !user.isAccountNonLocked() || token.getTokenGeneration() != currentGeneration) {
+            refreshTokenRepository.revokeFamily(token.getFamilyId(), Instant.now());
+            throw new InvalidRefreshTokenException("Refresh token is no longer valid.");
+        }
+    }
+
+    private String issue(RefreshToken.RefreshTokenBuilder builder, int tokenGeneration, Duration ttl, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(builder
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .tokenGeneration(tokenGeneration)
+                .expiresAt(Instant.now().plus(ttl))
+                .build());
+        return rawToken;
+    }
+
+    private Duration ttlOf(ProjectSnapshot project) {
+        Long ttlSeconds = project.refreshTokenTtlSeconds();
+        return ttlSeconds != null ? Duration.ofSeconds(ttlSeconds) : defaultTtl;
+    }
+
+    private static String newFamilyId() {
+        return UUID.randomUUID().toString();
+    }
+
+    // Token ngẫu nhiên 256 bit nên SHA-256 là đủ, không cần hàm băm chậm như mật khẩu
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
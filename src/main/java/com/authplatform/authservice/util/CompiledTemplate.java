@@ -0,0 +1,96 @@
+package com.authplatform.authservice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Template `{{bien}}` đã được phân tích sẵn thành các đoạn văn bản cố định và vị trí biến.
+ * Render chỉ nối chuỗi vào một StringBuilder có sẵn kích thước, không chạy regex hay tạo chuỗi trung gian.
+ */
+public final class CompiledTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{\\s*([A-Za-z][A-Za-z0-9]*)\\s*}}");
+
+    private final String[] literals; // literals.length == slots.length + 1
+    private final int[] slots;       // chỉ số biến trong danh sách variables
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * @param variables tên các biến được phép, giá trị khi render truyền theo đúng thứ tự này
+     * @throws IllegalArgumentException nếu template dùng biến không có trong danh sách
+     */
+    public static CompiledTemplate compile(String source, List<String> variables) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int start = 0;
+        while (matcher.find()) {
+            int slot = variables.indexOf(matcher.group(1));
+            if (slot < 0) {
+                throw new IllegalArgumentException("Unknown template variable '" + matcher.group(1) + "'. Allowed: " + variables);
+            }
+            literals.add(source.substring(start, matcher.start()));
+            slots.add(slot);
+            start = matcher.end();
+        }
+        literals.add(source.substring(start));
+        return new CompiledTemplate(literals.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    public String render(String[] values) {
+        return render(values, false);
+    }
+
+    // Giá trị biến được escape, phần HTML của template giữ nguyên
+    public String renderHtml(String[] values) {
+        return render(values, true);
+    }
+
+    // Giá trị null được render thành chuỗi rỗng
+    private String render(String[] values, boolean escapeHtml) {
+        int capacity = literalLength;
+        for (int slot : slots) {
+            capacity += values[slot] == null ? 0 : values[slot].length();
+        }
+        StringBuilder out = new StringBuilder(capacity + (escapeHtml ? 16 : 0));
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            if (escapeHtml) {
+                appendEscaped(out, values[slots[i]]);
+            } else {
+                String value = values[slots[i]];
+                out.append(value == null ? "" : value);
+            }
+        }
+        return out.append(literals[slots.length]).toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
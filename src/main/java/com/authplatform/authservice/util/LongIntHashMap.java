@@ -0,0 +1,151 @@
+package com.authplatform.authservice.util;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Map long → int dùng mảng nguyên thủy (open addressing, linear probing), không boxing.
+ * Đọc không khóa (optimistic read của {@link StampedLock}), ghi độc quyền; phù hợp với tải đọc nhiều, ghi ít.
+ * Khóa phải khác 0 (0 đánh dấu ô trống).
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+
+    private static final class Table {
+        final long[] keys;
+        final int[] values;
+        int size;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+
+    public LongIntHashMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    public int get(long key, int missingValue) {
+        long stamp = lock.tryOptimisticRead();
+        int value = find(table, key, missingValue);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = find(table, key, missingValue);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    public void put(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key must not be 0");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            // Giữ hệ số tải <= 0.5 để chuỗi dò luôn ngắn và luôn còn ô trống
+            if ((current.size + 1) * 2 > current.keys.length) {
+                current = resize(current);
+                table = current;
+            }
+            insert(current, key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Chỉ ghi khi giá trị mới lớn hơn giá trị hiện có (hoặc chưa có khóa), dùng cho bộ đếm tăng đơn điệu
+    public void putIfGreater(long key, int value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key must not be 0");
+        }
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            if (find(current, key, Integer.MIN_VALUE) >= value) {
+                return;
+            }
+            if ((current.size + 1) * 2 > current.keys.length) {
+                current = resize(current);
+                table = current;
+            }
+            insert(current, key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return table.size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static int find(Table table, long key, int missingValue) {
+        long[] keys = table.keys;
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        for (int probes = 0; probes < keys.length; probes++) {
+            long current = keys[index];
+            if (current == key) {
+                return table.values[index];
+            }
+            if (current == EMPTY) {
+                return missingValue;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    private static void insert(Table table, long key, int value) {
+        long[] keys = table.keys;
+        int mask = keys.length - 1;
+        int index = slot(key, mask);
+        while (keys[index] != EMPTY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == EMPTY) {
+            table.size++;
+        }
+        table.values[index] = value;
+        keys[index] = key;
+    }
+
+    private static Table resize(Table old) {
+        Table resized = new Table(old.keys.length * 2);
+        for (int i = 0; i < old.keys.length; i++) {
+            if (old.keys[i] != EMPTY) {
+                insert(resized, old.keys[i], old.values[i]);
+            }
+        }
+        return resized;
+    }
+
+    private static int slot(long key, int mask) {
+        // Trộn bit (murmur3 finalizer) để id tuần tự không dồn vào cùng một cụm
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,82 @@
+package com.authplatform.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OtpManagerTest {
+
+    private static final String EMAIL = "a@example.com";
+
+    private final OtpManager otpManager = newManager(Duration.ofMinutes(5));
+
+    @Test
+    void correctCodeCanBeUsedOnlyOnce() {
+        String otp = otpManager.issue(1L, EMAIL);
+
+        assertTrue(otpManager.verify(1L, EMAIL, otp));
+        assertFalse(otpManager.verify(1L, EMAIL, otp));
+    }
+
+    @Test
+    void rejectsCorrectCodeAfterMaxAttempts() {
+        String otp = otpManager.issue(1L, EMAIL);
+        for (int i = 0; i < 3; i++) {
+            assertFalse(otpManager.verify(1L, EMAIL, wrong(otp)));
+        }
+
+        assertFalse(otpManager.verify(1L, EMAIL, otp));
+    }
+
+    @Test
+    void acceptsCorrectCodeOnLastAllowedAttempt() {
+        String otp = otpManager.issue(1L, EMAIL);
+        otpManager.verify(1L, EMAIL, wrong(otp));
+        otpManager.verify(1L, EMAIL, wrong(otp));
+
+        assertTrue(otpManager.verify(1L, EMAIL, otp));
+    }
+
+    @Test
+    void reissuingResetsAttempts() {
+        String first = otpManager.issue(1L, EMAIL);
+        for (int i = 0; i < 3; i++) {
+            otpManager.verify(1L, EMAIL, wrong(first));
+        }
+        assertFalse(otpManager.verify(1L, EMAIL, first));
+
+        String second = otpManager.issue(1L, EMAIL);
+        otpManager.verify(1L, EMAIL, wrong(second));
+        otpManager.verify(1L, EMAIL, wrong(second));
+
+        assertTrue(otpManager.verify(1L, EMAIL, second));
+    }
+
+    @Test
+    void codeIsBoundToScopeAndEmail() {
+        String otp = otpManager.issue(1L, EMAIL);
+
+        assertFalse(otpManager.verify(2L, EMAIL, otp));
+        assertFalse(otpManager.verify(1L, "b@example.com", otp));
+        assertTrue(otpManager.verify(1L, EMAIL, otp));
+    }
+
+    @Test
+    void rejectsExpiredCode() {
+        OtpManager expired = newManager(Duration.ofSeconds(-1));
+        String otp = expired.issue(1L, EMAIL);
+
+        assertFalse(expired.verify(1L, EMAIL, otp));
+    }
+
+    private static OtpManager newManager(Duration ttl) {
+        return new OtpManager(new InMemoryOtpStore(), "test-secret", ttl, 3);
+    }
+
+    private static String wrong(String otp) {
+        return otp.equals("000000") ? "000001" : "000000";
+    }
+}
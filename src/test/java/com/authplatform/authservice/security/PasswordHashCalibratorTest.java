@@ -0,0 +1,70 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.security.PasswordHashCalibrator.Algorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mỗi lần dựng lại encoder tương ứng với một lần khởi động lại ứng dụng (có thể kèm hiệu chỉnh lại chi phí).
+ */
+class PasswordHashCalibratorTest {
+
+    private static final int PBKDF2_ITERATIONS = 1_000;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Test
+    void pbkdf2HashesSurviveRestartWithCalibrationTarget() {
+        String hash = PasswordHashCalibrator.create(Algorithm.PBKDF2, Duration.ofMillis(50), PBKDF2_ITERATIONS).encode(PASSWORD);
+
+        PasswordEncoder restarted = PasswordHashCalibrator.create(Algorithm.PBKDF2, Duration.ofMillis(200), PBKDF2_ITERATIONS);
+
+        assertTrue(hash.startsWith("{pbkdf2}"));
+        assertTrue(restarted.matches(PASSWORD, hash));
+        assertFalse(restarted.upgradeEncoding(hash));
+    }
+
+    @Test
+    void pbkdf2HashesStillMatchAfterSwitchingAlgorithmAndAreUpgraded() {
+        String hash = PasswordHashCalibrator.create(Algorithm.PBKDF2, null, PBKDF2_ITERATIONS).encode(PASSWORD);
+
+        PasswordEncoder restarted = PasswordHashCalibrator.create(Algorithm.BCRYPT, null, PBKDF2_ITERATIONS);
+
+        assertTrue(restarted.matches(PASSWORD, hash));
+        assertFalse(restarted.matches("wrong password", hash));
+        assertTrue(restarted.upgradeEncoding(hash));
+    }
+
+    @Test
+    void selfDescribingHashesSurviveRestartAndAlgorithmSwitch() {
+        for (Algorithm original : new Algorithm[]{Algorithm.BCRYPT, Algorithm.ARGON2, Algorithm.SCRYPT}) {
+            String hash = PasswordHashCalibrator.create(original, null, PBKDF2_ITERATIONS).encode(PASSWORD);
+
+            assertTrue(PasswordHashCalibrator.create(original, null, PBKDF2_ITERATIONS).matches(PASSWORD, hash), original.name());
+            assertTrue(PasswordHashCalibrator.create(Algorithm.PBKDF2, null, PBKDF2_ITERATIONS).matches(PASSWORD, hash), original.name());
+        }
+    }
+
+    @Test
+    void legacyUnprefixedBcryptMatchesAndIsUpgraded() {
+        String legacy = new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        PasswordEncoder encoder = PasswordHashCalibrator.create(Algorithm.BCRYPT, null, PBKDF2_ITERATIONS);
+
+        assertTrue(encoder.matches(PASSWORD, legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void lowerCostBcryptIsUpgradedButCurrentCostIsNot() {
+        PasswordEncoder encoder = PasswordHashCalibrator.create(Algorithm.BCRYPT, null, PBKDF2_ITERATIONS);
+
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD)));
+        assertFalse(encoder.upgradeEncoding(encoder.encode(PASSWORD)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.PrincipalChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrincipalInvalidationsTest {
+
+    private final PrincipalInvalidations invalidations = new PrincipalInvalidations(Duration.ofMinutes(1));
+
+    @Test
+    void invalidatesOnlyTheChangedPrincipal() {
+        long loadedAt = invalidations.stamp();
+        invalidations.invalidate(PrincipalChangedEvent.endUser(1L, "a@example.com"));
+
+        assertTrue(invalidations.isStale(PrincipalChangedEvent.endUserKey(1L, "a@example.com"), loadedAt));
+        assertFalse(invalidations.isStale(PrincipalChangedEvent.endUserKey(1L, "b@example.com"), loadedAt));
+        assertFalse(invalidations.isStale(PrincipalChangedEvent.ownerKey("a@example.com"), loadedAt));
+    }
+
+    @Test
+    void projectEventInvalidatesEveryUserOfThatProjectOnly() {
+        long loadedAt = invalidations.stamp();
+        invalidations.invalidate(PrincipalChangedEvent.project(1L));
+
+        assertTrue(invalidations.isStale(PrincipalChangedEvent.endUserKey(1L, "a@example.com"), loadedAt));
+        assertFalse(invalidations.isStale(PrincipalChangedEvent.endUserKey(11L, "a@example.com"), loadedAt));
+    }
+
+    @Test
+    void entriesLoadedAfterInvalidationStayValid() {
+        invalidations.invalidate(PrincipalChangedEvent.project(1L));
+        long loadedAt = invalidations.stamp();
+
+        assertFalse(invalidations.isStale(PrincipalChangedEvent.endUserKey(1L, "a@example.com"), loadedAt));
+    }
+}
@@ -0,0 +1,72 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.ProjectChangedEvent;
+import com.authplatform.authservice.repository.ProjectRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProjectCacheTest {
+
+    private static final String API_KEY = "api-key";
+
+    private final ProjectRepository projectRepository = mock(ProjectRepository.class);
+    private final ProjectCache projectCache = new ProjectCache(projectRepository, 100, Duration.ofMinutes(5),
+            100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @BeforeEach
+    void stubAllowedOrigins() {
+        when(projectRepository.findAllowedOrigins(1L)).thenReturn(List.of());
+    }
+
+    @Test
+    void cachesLoadedSnapshot() {
+        when(projectRepository.findSnapshotByApiKey(API_KEY)).thenReturn(Optional.of(snapshot("Old")));
+
+        projectCache.findByApiKey(API_KEY);
+        projectCache.findByApiKey(API_KEY);
+
+        verify(projectRepository, times(1)).findSnapshotByApiKey(API_KEY);
+    }
+
+    @Test
+    void snapshotLoadedBeforeConcurrentUpdateIsNotCached() {
+        // Project được cập nhật (và event được phát) trong lúc đang nạp ảnh chụp cũ
+        when(projectRepository.findSnapshotByApiKey(API_KEY))
+                .thenAnswer(invocation -> {
+                    projectCache.onProjectChanged(new ProjectChangedEvent(1L, 2L, API_KEY));
+                    return Optional.of(snapshot("Old"));
+                })
+                .thenReturn(Optional.of(snapshot("New")));
+
+        assertEquals("Old", projectCache.findByApiKey(API_KEY).orElseThrow().name());
+        assertEquals("New", projectCache.findByApiKey(API_KEY).orElseThrow().name());
+    }
+
+    @Test
+    void unknownKeyLoadedBeforeProjectCreationIsNotCached() {
+        when(projectRepository.findSnapshotByApiKey(API_KEY))
+                .thenAnswer(invocation -> {
+                    projectCache.onProjectChanged(new ProjectChangedEvent(1L, 2L, API_KEY));
+                    return Optional.empty();
+                })
+                .thenReturn(Optional.of(snapshot("New")));
+
+        assertEquals(Optional.empty(), projectCache.findByApiKey(API_KEY));
+        assertEquals("New", projectCache.findByApiKey(API_KEY).orElseThrow().name());
+    }
+
+    private static ProjectSnapshot snapshot(String name) {
+        return new ProjectSnapshot(1L, API_KEY, name, 2L, null, null, null);
+    }
+}
@@ -0,0 +1,50 @@
+package com.authplatform.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SigningKeyCipherTest {
+
+    private static final byte[] SECRET = "a-64-byte-hmac-secret-for-the-signing-key-ring-0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private final SigningKeyCipher cipher = new SigningKeyCipher("key-encryption-secret");
+
+    @Test
+    void roundTripsWithoutStoringPlaintext() {
+        String stored = cipher.encrypt("kid-1", SECRET);
+
+        assertTrue(SigningKeyCipher.isEncrypted(stored));
+        assertFalse(stored.contains(Base64.getEncoder().encodeToString(SECRET)));
+        assertNotEquals(stored, cipher.encrypt("kid-1", SECRET));
+        assertArrayEquals(SECRET, cipher.decrypt("kid-1", stored));
+    }
+
+    @Test
+    void rejectsWrongKeyOrKid() {
+        String stored = cipher.encrypt("kid-1", SECRET);
+
+        assertThrows(IllegalStateException.class, () -> new SigningKeyCipher("other-secret").decrypt("kid-1", stored));
+        assertThrows(IllegalStateException.class, () -> cipher.decrypt("kid-2", stored));
+    }
+
+    @Test
+    void readsLegacyPlaintextRows() {
+        String legacy = Base64.getEncoder().encodeToString(SECRET);
+
+        assertFalse(SigningKeyCipher.isEncrypted(legacy));
+        assertArrayEquals(SECRET, cipher.decrypt("kid-1", legacy));
+    }
+
+    @Test
+    void requiresSecret() {
+        assertThrows(IllegalStateException.class, () -> new SigningKeyCipher(" "));
+    }
+}
@@ -0,0 +1,68 @@
+package com.authplatform.authservice.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    // 5 lần mỗi phút: hồi một lượt sau mỗi 12 giây
+    private static final LoginRateLimiter.Limit LIMIT = new LoginRateLimiter.Limit(5, Duration.ofMinutes(1));
+    private static final long INTERVAL = Duration.ofSeconds(12).toNanos();
+
+    @Test
+    void allowsBurstOfAttemptsThenRejects() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(acquire(bucket, 0));
+        }
+        assertFalse(acquire(bucket, 0));
+        assertFalse(acquire(bucket, INTERVAL - 1));
+    }
+
+    @Test
+    void refillsOneAttemptPerInterval() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 5; i++) {
+            acquire(bucket, 0);
+        }
+
+        assertTrue(acquire(bucket, INTERVAL));
+        assertFalse(acquire(bucket, INTERVAL));
+        assertTrue(acquire(bucket, 2 * INTERVAL));
+    }
+
+    @Test
+    void idleForAWindowRestoresFullBurst() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 5; i++) {
+            acquire(bucket, 0);
+        }
+
+        long later = Duration.ofMinutes(1).toNanos();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(acquire(bucket, later));
+        }
+        assertFalse(acquire(bucket, later));
+    }
+
+    @Test
+    void rejectedAttemptsDoNotConsumeCapacity() {
+        TokenBucket bucket = new TokenBucket(0);
+        for (int i = 0; i < 5; i++) {
+            acquire(bucket, 0);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertFalse(acquire(bucket, 1));
+        }
+
+        assertTrue(acquire(bucket, INTERVAL));
+    }
+
+    private static boolean acquire(TokenBucket bucket, long nowNanos) {
+        return bucket.tryAcquire(nowNanos, LIMIT.intervalNanos(), LIMIT.burstToleranceNanos());
+    }
+}
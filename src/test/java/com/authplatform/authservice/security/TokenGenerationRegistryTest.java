@@ -0,0 +1,73 @@
+package com.authplatform.authservice.security;
+
+import com.authplatform.authservice.event.TokenGenerationChangedEvent;
+import com.authplatform.authservice.repository.EndUserRepository;
+import com.authplatform.authservice.repository.OwnerRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenGenerationRegistryTest {
+
+    private static final long PROJECT_ID = 7L;
+
+    private final OwnerRepository ownerRepository = mock(OwnerRepository.class);
+    private final EndUserRepository endUserRepository = mock(EndUserRepository.class);
+    private final TokenGenerationRegistry registry =
+            new TokenGenerationRegistry(ownerRepository, endUserRepository, Duration.ofSeconds(5));
+
+    @Test
+    void newerTokenGenerationReloadsFromDatabaseInsteadOfRejecting() {
+        when(endUserRepository.findTokenGeneration(1L, PROJECT_ID)).thenReturn(Optional.of(0));
+        assertTrue(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 0));
+
+        // Thế hệ tăng ở replica khác và poll chưa thấy
+        when(endUserRepository.findTokenGeneration(1L, PROJECT_ID)).thenReturn(Optional.of(1));
+
+        assertTrue(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 1));
+        assertFalse(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 0));
+        assertEquals(1, registry.currentEndUserGeneration(PROJECT_ID, 1L));
+    }
+
+    @Test
+    void tokenNewerThanDatabaseIsRejected() {
+        when(ownerRepository.findTokenGeneration(1L)).thenReturn(Optional.of(2));
+
+        assertFalse(registry.isCurrentOwnerToken(1L, 3));
+        assertTrue(registry.isCurrentOwnerToken(1L, 2));
+    }
+
+    @Test
+    void changeMissedByPollIsPickedUpAfterResync() {
+        when(endUserRepository.findTokenGeneration(1L, PROJECT_ID)).thenReturn(Optional.of(0));
+        assertTrue(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 0));
+
+        // Transaction commit muộn hơn poll-overlap: poll không trả về thay đổi
+        when(endUserRepository.findTokenGeneration(1L, PROJECT_ID)).thenReturn(Optional.of(1));
+        when(endUserRepository.findTokenGenerationChangesSince(any())).thenReturn(List.of());
+        registry.pollChanges();
+        assertTrue(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 0));
+
+        registry.resync();
+
+        assertFalse(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 0));
+    }
+
+    @Test
+    void localEventIsNotLoweredByStaleDatabaseRead() {
+        when(endUserRepository.findTokenGeneration(1L, PROJECT_ID)).thenReturn(Optional.of(0));
+        registry.onGenerationChanged(new TokenGenerationChangedEvent(PROJECT_ID, 1L, 3));
+
+        assertFalse(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 0));
+        assertTrue(registry.isCurrentEndUserToken(PROJECT_ID, 1L, 3));
+    }
+}
@@ -0,0 +1,86 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.BulkEndUserRequest;
+import com.authplatform.authservice.event.TokenGenerationsChangedEvent;
+import com.authplatform.authservice.repository.EndUserRepository;
+import com.authplatform.authservice.repository.OwnerRepository;
+import com.authplatform.authservice.security.TokenGenerationChange;
+import com.authplatform.authservice.security.TokenGenerationRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EndUserBulkServiceTest {
+
+    private static final long PROJECT_ID = 7L;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final List<Object> events = new ArrayList<>();
+    private final EndUserBulkService service =
+            new EndUserBulkService(jdbcTemplate, new TransactionTemplate(transactionManager), events::add, 2);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lockCommitsEachBatchAndOtherReplicaSeesItAfterPolling() {
+        List<TokenGenerationChange> firstBatch = List.of(change(1L), change(2L));
+        List<TokenGenerationChange> secondBatch = List.of(change(3L));
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(firstBatch, secondBatch);
+
+        // Replica khác đã nạp thế hệ 0 của các user trước khi bị khóa
+        EndUserRepository endUserRepository = mock(EndUserRepository.class);
+        when(endUserRepository.findTokenGeneration(anyLong(), eq(PROJECT_ID))).thenReturn(Optional.of(0));
+        TokenGenerationRegistry otherReplica =
+                new TokenGenerationRegistry(mock(OwnerRepository.class), endUserRepository, Duration.ofSeconds(5));
+        for (long userId = 1; userId <= 3; userId++) {
+            assertTrue(otherReplica.isCurrentEndUserToken(PROJECT_ID, userId, 0));
+        }
+
+        BulkEndUserRequest request = new BulkEndUserRequest();
+        request.setUserIds(Set.of(1L, 2L, 3L));
+        assertEquals(3, service.lock(PROJECT_ID, request).getAffected());
+
+        verify(transactionManager, times(2)).commit(any());
+        List<TokenGenerationsChangedEvent> published = events.stream()
+                .filter(TokenGenerationsChangedEvent.class::isInstance)
+                .map(TokenGenerationsChangedEvent.class::cast)
+                .toList();
+        assertEquals(List.of(firstBatch, secondBatch), published.stream().map(TokenGenerationsChangedEvent::changes).toList());
+
+        // Mỗi lô commit ngay sau khi ghi mốc thay đổi, nên poll của replica khác đọc được cả hai lô
+        List<TokenGenerationChange> committed = new ArrayList<>(firstBatch);
+        committed.addAll(secondBatch);
+        when(endUserRepository.findTokenGenerationChangesSince(any())).thenReturn(committed);
+        otherReplica.pollChanges();
+
+        for (long userId = 1; userId <= 3; userId++) {
+            assertFalse(otherReplica.isCurrentEndUserToken(PROJECT_ID, userId, 0));
+        }
+    }
+
+    private static TokenGenerationChange change(long userId) {
+        return new TokenGenerationChange(userId, PROJECT_ID, 1);
+    }
+}
@@ -0,0 +1,54 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.EndUserResponse;
+import com.authplatform.authservice.dto.EndUserSort;
+import com.authplatform.authservice.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EndUserCursorTest {
+
+    @Test
+    void roundTripsIdCursor() {
+        String cursor = EndUserCursor.encode(user(42L, "a@example.com"), EndUserSort.ID_DESC);
+
+        assertEquals(42L, EndUserCursor.decode(cursor, EndUserSort.ID_DESC));
+        assertEquals(42L, EndUserCursor.decode(cursor, EndUserSort.ID_ASC));
+    }
+
+    @Test
+    void roundTripsEmailCursor() {
+        String cursor = EndUserCursor.encode(user(42L, "nguyễn+test@example.com"), EndUserSort.EMAIL_ASC);
+
+        assertEquals("nguyễn+test@example.com", EndUserCursor.decode(cursor, EndUserSort.EMAIL_ASC));
+    }
+
+    @Test
+    void rejectsCursorFromDifferentSortKey() {
+        String idCursor = EndUserCursor.encode(user(42L, "a@example.com"), EndUserSort.ID_ASC);
+        String emailCursor = EndUserCursor.encode(user(42L, "a@example.com"), EndUserSort.EMAIL_ASC);
+
+        assertThrows(InvalidCursorException.class, () -> EndUserCursor.decode(idCursor, EndUserSort.EMAIL_ASC));
+        assertThrows(InvalidCursorException.class, () -> EndUserCursor.decode(emailCursor, EndUserSort.ID_DESC));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        String notANumber = Base64.getUrlEncoder().withoutPadding().encodeToString("i:abc".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidCursorException.class, () -> EndUserCursor.decode("not base64!", EndUserSort.ID_ASC));
+        assertThrows(InvalidCursorException.class, () -> EndUserCursor.decode(notANumber, EndUserSort.ID_ASC));
+    }
+
+    private static EndUserResponse user(Long id, String email) {
+        EndUserResponse response = new EndUserResponse();
+        response.setId(id);
+        response.setEmail(email);
+        return response;
+    }
+}
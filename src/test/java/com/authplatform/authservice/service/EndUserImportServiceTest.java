@@ -0,0 +1,112 @@
+package com.authplatform.authservice.service;
+
+import com.authplatform.authservice.dto.EndUserImportRow;
+import com.authplatform.authservice.security.PasswordHashCalibrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EndUserImportServiceTest {
+
+    private static final String PASSWORD = "Secret123!";
+
+    private final PasswordEncoder encoder =
+            PasswordHashCalibrator.create(PasswordHashCalibrator.Algorithm.BCRYPT, Duration.ZERO, 310_000);
+
+    @Test
+    void prefixesRawBcryptAndArgon2Hashes() {
+        String bcrypt = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        String argon2 = new Argon2PasswordEncoder(16, 32, 1, 1 << 12, 2).encode(PASSWORD);
+
+        String normalizedBcrypt = EndUserImportService.normalizeHash(bcrypt);
+        String normalizedArgon2 = EndUserImportService.normalizeHash(argon2);
+
+        assertEquals("{bcrypt}" + bcrypt, normalizedBcrypt);
+        assertEquals("{argon2}" + argon2, normalizedArgon2);
+        assertTrue(encoder.matches(PASSWORD, normalizedBcrypt));
+        assertTrue(encoder.matches(PASSWORD, normalizedArgon2));
+    }
+
+    @Test
+    void acceptsAllSupportedBcryptVariantsAndPrefixedHashes() {
+        String bcrypt = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        String body = bcrypt.substring(4);
+
+        assertEquals("{bcrypt}$2b$" + body, EndUserImportService.normalizeHash("$2b$" + body));
+        assertEquals("{bcrypt}$2y$" + body, EndUserImportService.normalizeHash("$2y$" + body));
+        assertEquals("{bcrypt}" + bcrypt, EndUserImportService.normalizeHash("{bcrypt}" + bcrypt));
+        assertTrue(encoder.matches(PASSWORD, EndUserImportService.normalizeHash("$2y$" + body)));
+    }
+
+    @Test
+    void rejectsUnsupportedOrMalformedHashes() {
+        String bcrypt = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        String argon2 = new Argon2PasswordEncoder(16, 32, 1, 1 << 12, 2).encode(PASSWORD);
+
+        for (String hash : new String[]{
+                "$2x$" + bcrypt.substring(4),
+                "$2$" + bcrypt.substring(4),
+                bcrypt.substring(0, bcrypt.length() - 1),
+                "{pbkdf2}5d923b44a6d129f3ddf3e3c8d29412723dcbde72445e8ef6bf3b508fbf17fa4ed4d6b99ca763d8dc",
+                "{scrypt}$e0801$abc$def",
+                "{argon2}" + bcrypt,
+                "{bcrypt}" + argon2,
+                "{bcrypt}",
+                "$argon2id$garbage",
+                "plaintext"}) {
+            assertThrows(IllegalArgumentException.class, () -> EndUserImportService.normalizeHash(hash), hash);
+        }
+    }
+
+    @Test
+    void parsesCsvRowByHeaderNameIgnoringCaseAndOrder() {
+        Map<String, Integer> columns = EndUserImportService.parseCsvHeader(" Email ,fullName,EMAILVERIFIED,password");
+
+        EndUserImportRow row = EndUserImportService.parseCsvRow("a@example.com,Nguyễn Văn A,false,Secret123!", columns);
+
+        assertEquals("a@example.com", row.getEmail());
+        assertEquals("Nguyễn Văn A", row.getFullName());
+        assertEquals(Boolean.FALSE, row.getEmailVerified());
+        assertEquals("Secret123!", row.getPassword());
+        assertNull(row.getPasswordHash());
+    }
+
+    @Test
+    void parsesQuotedValuesWithCommasAndEscapedQuotes() {
+        Map<String, Integer> columns = EndUserImportService.parseCsvHeader("email,fullName,password");
+
+        EndUserImportRow row = EndUserImportService.parseCsvRow("a@example.com,\"Doe, \"\"JD\"\" John\",\"p,a\"\"ss\"", columns);
+
+        assertEquals("Doe, \"JD\" John", row.getFullName());
+        assertEquals("p,a\"ss", row.getPassword());
+    }
+
+    @Test
+    void treatsEmptyAndMissingTrailingValuesAsNull() {
+        Map<String, Integer> columns = EndUserImportService.parseCsvHeader("email,fullName,passwordHash,emailVerified");
+
+        EndUserImportRow row = EndUserImportService.parseCsvRow("a@example.com,,", columns);
+
+        assertEquals("a@example.com", row.getEmail());
+        assertNull(row.getFullName());
+        assertNull(row.getPasswordHash());
+        assertNull(row.getEmailVerified());
+    }
+
+    @Test
+    void rejectsHeaderWithoutEmailAndUnterminatedQuote() {
+        Map<String, Integer> columns = EndUserImportService.parseCsvHeader("email,fullName");
+
+        assertThrows(IllegalArgumentException.class, () -> EndUserImportService.parseCsvHeader("fullName,password"));
+        assertThrows(IllegalArgumentException.class, () -> EndUserImportService.parseCsvRow("a@example.com,\"unterminated", columns));
+    }
+}
@@ -0,0 +1,86 @@
+package com.authplatform.authservice.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Gửi qua máy chủ SMTP nhúng (GreenMail), không cần mạng.
+ */
+class PooledMailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private SimpleMeterRegistry meterRegistry;
+    private PooledMailSender pooledMailSender;
+
+    @BeforeEach
+    void setUp() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        meterRegistry = new SimpleMeterRegistry();
+        pooledMailSender = new PooledMailSender(mailSender, 2, 10, Duration.ofSeconds(30), 0, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pooledMailSender.destroy();
+    }
+
+    @Test
+    void sendsBatchOverReusedConnections() throws Exception {
+        Map<MimeMessage, Exception> failures = pooledMailSender.send(messages(25));
+        failures.putAll(pooledMailSender.send(messages(5)));
+
+        assertTrue(failures.isEmpty(), () -> failures.values().toString());
+        assertEquals(30, greenMail.getReceivedMessages().length);
+        // 25 thư / 10 thư mỗi kết nối = 3 kết nối, lô thứ hai dùng lại kết nối cuối còn trong pool
+        assertEquals(3.0, meterRegistry.counter("auth.email.smtp.connections.opened").count());
+    }
+
+    @Test
+    void reportsFailedMessagesWithoutFailingBatch() throws Exception {
+        List<MimeMessage> messages = messages(3);
+        MimeMessage withoutRecipient = pooledMailSender.createMimeMessage();
+        new MimeMessageHelper(withoutRecipient, "UTF-8").setSubject("No recipient");
+        messages.add(1, withoutRecipient);
+
+        Map<MimeMessage, Exception> failures = pooledMailSender.send(messages);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(withoutRecipient));
+        assertEquals(3, greenMail.getReceivedMessages().length);
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = pooledMailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            helper.setFrom("noreply@example.com");
+            helper.setTo("user" + i + "@example.com");
+            helper.setSubject("Test " + i);
+            helper.setText("<p>Hello " + i + "</p>", true);
+            messages.add(message);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,67 @@
+package com.authplatform.authservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LongIntHashMapTest {
+
+    @Test
+    void keepsEveryEntryAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (int) key * 3);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 1; key <= 10_000; key++) {
+            assertEquals((int) key * 3, map.get(key, -1));
+        }
+        assertEquals(-1, map.get(10_001, -1));
+    }
+
+    @Test
+    void overwritingAKeyDoesNotChangeSize() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.put(42, 1);
+        map.put(42, 2);
+
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(42, -1));
+    }
+
+    @Test
+    void putIfGreaterOnlyMovesForward() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        map.putIfGreater(7, 3);
+        map.putIfGreater(7, 2);
+        assertEquals(3, map.get(7, -1));
+
+        map.putIfGreater(7, 3);
+        assertEquals(3, map.get(7, -1));
+
+        map.putIfGreater(7, 5);
+        assertEquals(5, map.get(7, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void putIfGreaterResizesWhenInsertingNewKeys() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        for (long key = 1; key <= 1_000; key++) {
+            map.putIfGreater(key, 1);
+        }
+
+        assertEquals(1_000, map.size());
+        assertEquals(1, map.get(1_000, -1));
+    }
+
+    @Test
+    void rejectsZeroKey() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.putIfGreater(0, 1));
+    }
+}